@@ -0,0 +1,239 @@
+package com.springbootTemplate.univ.soa.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Filtre de Bloom des emails inscrits, reconstruit périodiquement depuis ms-persistance.
+ * Une réponse négative est certaine : l'appel distant peut être évité. Une réponse positive peut être fausse
+ * (taux visé : fpp). Les suppressions ne retirent rien ; elles ne produisent que des faux positifs jusqu'à la
+ * prochaine reconstruction.
+ * Une réponse négative n'est fiable que si le filtre est complet : alimenté par toutes les inscriptions
+ * (instance unique, "complet") et reconstruit récemment (moins de ageMaxMs). Sinon, ou tant qu'aucune
+ * reconstruction n'a réussi, le filtre répond "peut-être" à tout et la recherche réelle a lieu.
+ */
+@Slf4j
+public class RegisteredEmailFilter implements MeterBinder {
+
+    private final long capaciteAttendue;
+    private final double fpp;
+    private final boolean complet;
+    private final long ageMaxNanos;
+
+    private volatile Bits bits;
+    private volatile boolean pret;
+    private volatile long derniereReconstruction;
+
+    // Ajouts survenus pendant une reconstruction, rejoués sur le nouveau filtre
+    private volatile Queue<String> ajoutsPendantReconstruction;
+
+    private final AtomicLong negatifs = new AtomicLong();
+    private Timer reconstructions;
+
+    /**
+     * @param complet true si cette instance voit toutes les inscriptions (sinon aucune réponse négative)
+     * @param ageMaxMs âge maximal de la dernière reconstruction pour se fier à une réponse négative
+     */
+    public RegisteredEmailFilter(long capaciteAttendue, double fpp, boolean complet, long ageMaxMs) {
+        this.capaciteAttendue = Math.max(1, capaciteAttendue);
+        this.fpp = fpp;
+        this.complet = complet;
+        this.ageMaxNanos = TimeUnit.MILLISECONDS.toNanos(ageMaxMs);
+        this.bits = new Bits(this.capaciteAttendue, fpp);
+    }
+
+    /**
+     * false si l'email n'est certainement pas inscrit
+     */
+    public boolean mightContain(String email) {
+        if (!isTrusted() || email == null) {
+            return true;
+        }
+        boolean present = bits.contient(normaliser(email));
+        if (!present) {
+            negatifs.incrementAndGet();
+        }
+        return present;
+    }
+
+    public void add(String email) {
+        if (email == null) {
+            return;
+        }
+        String cle = normaliser(email);
+        Queue<String> pendants = ajoutsPendantReconstruction;
+        if (pendants != null) {
+            pendants.add(cle);
+        }
+        bits.ajouter(cle);
+    }
+
+    /**
+     * Reconstruire le filtre à partir de la liste complète des emails, puis basculer atomiquement
+     */
+    public void rebuild(Supplier<? extends Collection<String>> source) {
+        long debut = System.nanoTime();
+        ajoutsPendantReconstruction = new ConcurrentLinkedQueue<>();
+        try {
+            Collection<String> emails = source.get();
+            Bits nouveau = new Bits(Math.max(capaciteAttendue, emails.size()), fpp);
+            for (String email : emails) {
+                if (email != null) {
+                    nouveau.ajouter(normaliser(email));
+                }
+            }
+            bits = nouveau;
+            for (String cle : ajoutsPendantReconstruction) {
+                nouveau.ajouter(cle);
+            }
+            derniereReconstruction = System.nanoTime();
+            pret = true;
+
+            long duree = System.nanoTime() - debut;
+            if (reconstructions != null) {
+                reconstructions.record(duree, TimeUnit.NANOSECONDS);
+            }
+            log.info("🧮 Filtre des emails reconstruit : {} emails, {} Ko, fpp estimé {}, en {} ms",
+                    nouveau.elements.get(), nouveau.tailleOctets() / 1024,
+                    String.format(Locale.ROOT, "%.4f", nouveau.fppEstime()), duree / 1_000_000);
+        } finally {
+            ajoutsPendantReconstruction = null;
+        }
+    }
+
+    public boolean isReady() {
+        return pret;
+    }
+
+    /**
+     * Réponses négatives utilisables : filtre complet et reconstruit depuis moins de ageMaxMs
+     */
+    public boolean isTrusted() {
+        return pret && complet && System.nanoTime() - derniereReconstruction <= ageMaxNanos;
+    }
+
+    public long sizeInBytes() {
+        return bits.tailleOctets();
+    }
+
+    public double expectedFalsePositiveRate() {
+        return bits.fppEstime();
+    }
+
+    public long negativeCount() {
+        return negatifs.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("utilisateur.email.filter.size", this, RegisteredEmailFilter::sizeInBytes)
+                .baseUnit("bytes")
+                .description("Mémoire occupée par le filtre des emails inscrits")
+                .register(registry);
+        Gauge.builder("utilisateur.email.filter.fpp", this, RegisteredEmailFilter::expectedFalsePositiveRate)
+                .description("Taux de faux positifs estimé d'après le remplissage")
+                .register(registry);
+        Gauge.builder("utilisateur.email.filter.elements", this, f -> f.bits.elements.get())
+                .register(registry);
+        Gauge.builder("utilisateur.email.filter.ready", this, f -> f.pret ? 1 : 0)
+                .register(registry);
+        Gauge.builder("utilisateur.email.filter.trusted", this, f -> f.isTrusted() ? 1 : 0)
+                .description("Réponses négatives utilisées pour éviter l'appel à ms-persistance")
+                .register(registry);
+        FunctionCounter.builder("utilisateur.email.filter.negatives", negatifs, AtomicLong::get)
+                .description("Recherches évitées : email certainement inconnu")
+                .register(registry);
+        reconstructions = Timer.builder("utilisateur.email.filter.rebuild")
+                .description("Durée des reconstructions du filtre")
+                .register(registry);
+    }
+
+    private static String normaliser(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Tableau de bits partagé (ajouts concurrents sans verrou), k fonctions de hachage par double hachage
+     */
+    private static final class Bits {
+
+        private final AtomicLongArray mots;
+        private final long nbBits;
+        private final int nbHash;
+        private final AtomicLong elements = new AtomicLong();
+
+        Bits(long capacite, double fpp) {
+            long m = (long) Math.ceil(-capacite * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            int mots = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+            this.mots = new AtomicLongArray(mots);
+            this.nbBits = mots * 64L;
+            this.nbHash = Math.max(1, (int) Math.round((double) nbBits / capacite * Math.log(2)));
+        }
+
+        void ajouter(String cle) {
+            long h = hash(cle);
+            long h1 = h;
+            long h2 = melanger(h ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < nbHash; i++) {
+                long bit = Math.floorMod(h1 + i * h2, nbBits);
+                long masque = 1L << bit;
+                mots.getAndAccumulate((int) (bit >>> 6), masque, (a, b) -> a | b);
+            }
+            elements.incrementAndGet();
+        }
+
+        boolean contient(String cle) {
+            long h = hash(cle);
+            long h1 = h;
+            long h2 = melanger(h ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < nbHash; i++) {
+                long bit = Math.floorMod(h1 + i * h2, nbBits);
+                if ((mots.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long tailleOctets() {
+            return nbBits / 8;
+        }
+
+        double fppEstime() {
+            return Math.pow(1 - Math.exp(-nbHash * (double) elements.get() / nbBits), nbHash);
+        }
+
+        // FNV-1a 64 bits suivi du finaliseur de MurmurHash3
+        private static long hash(String cle) {
+            long h = 0xcbf29ce484222325L;
+            for (byte b : cle.getBytes(StandardCharsets.UTF_8)) {
+                h ^= b & 0xff;
+                h *= 0x100000001b3L;
+            }
+            return melanger(h);
+        }
+
+        private static long melanger(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb93e185a873bL;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.springbootTemplate.univ.soa.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.springbootTemplate.univ.soa.dto.UtilisateurResponseDto;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Cache local (read-through) des profils utilisateurs devant PersistanceClient.
+ * Les profils sont indexés par ID ; l'index par email pointe vers l'ID et est revérifié à chaque lecture
+ * pour ne jamais renvoyer un profil dont l'email a changé.
+ * Le chargement se fait hors verrou : un appel distant lent ne bloque pas les autres clés.
+ * Un chargement commencé avant une invalidation de la même clé n'est pas conservé (profil potentiellement périmé).
+ * Le cache stocke et renvoie des copies : un appelant qui modifie le DTO n'altère pas l'entrée partagée.
+ */
+public class UtilisateurProfileCache {
+
+    private final Cache<Long, UtilisateurResponseDto> parId;
+    private final Cache<String, Long> idParEmail;
+    // Dernière invalidation (System.nanoTime) par clé, conservée le temps d'un TTL
+    private final Cache<Long, Long> invalidationsParId;
+    private final Cache<String, Long> invalidationsParEmail;
+
+    public UtilisateurProfileCache(long maxSize, Duration ttl) {
+        this.parId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idParEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.invalidationsParId = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+        this.invalidationsParEmail = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Récupérer un profil par ID, en le chargeant via le loader si absent du cache
+     */
+    public UtilisateurResponseDto getById(Long id, Function<Long, UtilisateurResponseDto> loader) {
+        UtilisateurResponseDto utilisateur = getIfPresent(id);
+        if (utilisateur != null) {
+            return utilisateur;
+        }
+
+        long debut = debutChargement();
+        utilisateur = loader.apply(id);
+        put(utilisateur, debut);
+        return utilisateur;
+    }
+
+    /**
+     * Profil en cache pour cet ID, sans chargement (null si absent)
+     */
+    public UtilisateurResponseDto getIfPresent(Long id) {
+        return copie(parId.getIfPresent(id));
+    }
+
+    /**
+     * Profil en cache pour cet email, sans chargement (null si absent)
+     */
+    public UtilisateurResponseDto getIfPresentByEmail(String email) {
+        Long id = idParEmail.getIfPresent(normaliser(email));
+        if (id == null) {
+            return null;
+        }
+        UtilisateurResponseDto utilisateur = parId.getIfPresent(id);
+        return utilisateur != null && email.equalsIgnoreCase(utilisateur.getEmail()) ? copie(utilisateur) : null;
+    }
+
+    /**
+     * Récupérer un profil par email, en le chargeant via le loader si absent du cache
+     */
+    public UtilisateurResponseDto getByEmail(String email, Function<String, UtilisateurResponseDto> loader) {
+        UtilisateurResponseDto utilisateur = getIfPresentByEmail(email);
+        if (utilisateur != null) {
+            return utilisateur;
+        }
+
+        long debut = debutChargement();
+        utilisateur = loader.apply(email);
+        put(utilisateur, debut);
+        return utilisateur;
+    }
+
+    /**
+     * Horodatage à prendre avant un chargement distant, à repasser à {@link #put(UtilisateurResponseDto, long)}
+     */
+    public long debutChargement() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Mettre en cache un profil qui vient d'être écrit : il remplace aussi un chargement encore en cours
+     */
+    public void put(UtilisateurResponseDto utilisateur) {
+        if (utilisateur == null || utilisateur.getId() == null) {
+            return;
+        }
+        marquerModifie(utilisateur.getId(), utilisateur.getEmail());
+        stocker(copie(utilisateur));
+    }
+
+    /**
+     * Mettre en cache un profil chargé depuis debut, sauf si sa clé a été invalidée entre-temps
+     */
+    public void put(UtilisateurResponseDto utilisateur, long debut) {
+        if (utilisateur == null || utilisateur.getId() == null
+                || modifieDepuis(utilisateur.getId(), utilisateur.getEmail(), debut)) {
+            return;
+        }
+        UtilisateurResponseDto copie = copie(utilisateur);
+        stocker(copie);
+        // Une invalidation arrivée pendant l'écriture ne voyait pas encore l'entrée : la retirer nous-mêmes
+        if (modifieDepuis(copie.getId(), copie.getEmail(), debut)) {
+            parId.asMap().remove(copie.getId(), copie);
+            if (copie.getEmail() != null) {
+                idParEmail.asMap().remove(normaliser(copie.getEmail()), copie.getId());
+            }
+        }
+    }
+
+    /**
+     * Invalider un profil (et son entrée email) après une écriture
+     */
+    public void invalidate(Long id) {
+        if (id == null) {
+            return;
+        }
+        invalidationsParId.put(id, System.nanoTime());
+        UtilisateurResponseDto ancien = parId.asMap().remove(id);
+        if (ancien != null && ancien.getEmail() != null) {
+            invalidationsParEmail.put(normaliser(ancien.getEmail()), System.nanoTime());
+            idParEmail.invalidate(normaliser(ancien.getEmail()));
+        }
+    }
+
+    public void invalidateEmail(String email) {
+        if (email == null) {
+            return;
+        }
+        invalidationsParEmail.put(normaliser(email), System.nanoTime());
+        Long id = idParEmail.asMap().remove(normaliser(email));
+        if (id != null) {
+            invalidationsParId.put(id, System.nanoTime());
+            parId.invalidate(id);
+        }
+    }
+
+    public void invalidateAll() {
+        parId.invalidateAll();
+        idParEmail.invalidateAll();
+    }
+
+    public Cache<Long, UtilisateurResponseDto> parIdCache() {
+        return parId;
+    }
+
+    public Cache<String, Long> idParEmailCache() {
+        return idParEmail;
+    }
+
+    private void stocker(UtilisateurResponseDto utilisateur) {
+        parId.put(utilisateur.getId(), utilisateur);
+        if (utilisateur.getEmail() != null) {
+            idParEmail.put(normaliser(utilisateur.getEmail()), utilisateur.getId());
+        }
+    }
+
+    private void marquerModifie(Long id, String email) {
+        long maintenant = System.nanoTime();
+        invalidationsParId.put(id, maintenant);
+        if (email != null) {
+            invalidationsParEmail.put(normaliser(email), maintenant);
+        }
+    }
+
+    private boolean modifieDepuis(Long id, String email, long debut) {
+        Long parIdModifie = invalidationsParId.getIfPresent(id);
+        if (parIdModifie != null && parIdModifie - debut >= 0) {
+            return true;
+        }
+        Long parEmailModifie = email != null ? invalidationsParEmail.getIfPresent(normaliser(email)) : null;
+        return parEmailModifie != null && parEmailModifie - debut >= 0;
+    }
+
+    private static UtilisateurResponseDto copie(UtilisateurResponseDto source) {
+        if (source == null) {
+            return null;
+        }
+        return UtilisateurResponseDto.builder()
+                .id(source.getId())
+                .email(source.getEmail())
+                .nom(source.getNom())
+                .prenom(source.getPrenom())
+                .role(source.getRole())
+                .actif(source.getActif())
+                .regimesIds(copie(source.getRegimesIds()))
+                .allergenesIds(copie(source.getAllergenesIds()))
+                .typesCuisinePreferesIds(copie(source.getTypesCuisinePreferesIds()))
+                .dateCreation(source.getDateCreation())
+                .dateModification(source.getDateModification())
+                .build();
+    }
+
+    private static Set<Long> copie(Set<Long> source) {
+        return source != null ? new HashSet<>(source) : null;
+    }
+
+    private static String normaliser(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
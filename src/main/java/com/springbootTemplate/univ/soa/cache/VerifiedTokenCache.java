@@ -0,0 +1,131 @@
+package com.springbootTemplate.univ.soa.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.springbootTemplate.univ.soa.security.JwtPrincipal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache des JWT déjà vérifiés : empreinte SHA-256 du token → principal extrait.
+ * Un token présent évite la vérification HMAC et l'analyse JSON des claims.
+ * Chaque entrée expire à l'expiration du token lui-même ; les tokens refusés ne sont jamais mis en cache.
+ * La taille est bornée en octets (poids estimé par entrée), pas en nombre d'entrées.
+ */
+public class VerifiedTokenCache {
+
+    // Nœud Caffeine + clé (4 longs) + record JwtPrincipal + Instant, hors chaînes
+    static final int SURCOUT_ENTREE = 200;
+
+    // Cloner un prototype évite la recherche du fournisseur à chaque appel de MessageDigest.getInstance
+    private static final MessageDigest SHA_256 = sha256();
+
+    private final Cache<Empreinte, JwtPrincipal> tokens;
+
+    /**
+     * Empreinte SHA-256 du token : 32 octets au lieu de la chaîne complète (~200 caractères)
+     */
+    public record Empreinte(long a, long b, long c, long d) {
+    }
+
+    public VerifiedTokenCache(long maxBytes) {
+        this(maxBytes, Ticker.systemTicker());
+    }
+
+    VerifiedTokenCache(long maxBytes, Ticker ticker) {
+        this.tokens = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Empreinte empreinte, JwtPrincipal principal) -> poids(principal))
+                .expireAfter(new ExpirationDuToken())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Principal en cache pour ce token, sinon résultat du vérificateur (mis en cache s'il est valide)
+     */
+    public Optional<JwtPrincipal> get(String token, Function<String, Optional<JwtPrincipal>> verificateur) {
+        Empreinte empreinte = empreinte(token);
+        JwtPrincipal principal = tokens.getIfPresent(empreinte);
+        if (principal != null && principal.expiration().isAfter(Instant.now())) {
+            return Optional.of(principal);
+        }
+
+        Optional<JwtPrincipal> verifie = verificateur.apply(token);
+        verifie.filter(p -> p.expiration() != null)
+                .ifPresent(p -> tokens.put(empreinte, p));
+        return verifie;
+    }
+
+    public void invalidateAll() {
+        tokens.invalidateAll();
+    }
+
+    /**
+     * Octets estimés occupés par les entrées présentes
+     */
+    public long weightedSize() {
+        return tokens.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    public Cache<Empreinte, JwtPrincipal> cache() {
+        return tokens;
+    }
+
+    /**
+     * Durée de vie fixée à l'insertion : le temps restant avant l'expiration du token
+     */
+    private static final class ExpirationDuToken implements Expiry<Empreinte, JwtPrincipal> {
+
+        @Override
+        public long expireAfterCreate(Empreinte empreinte, JwtPrincipal principal, long currentTime) {
+            Duration restant = Duration.between(Instant.now(), principal.expiration());
+            return restant.isNegative() ? 0 : restant.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Empreinte empreinte, JwtPrincipal principal, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(empreinte, principal, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Empreinte empreinte, JwtPrincipal principal, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static int poids(JwtPrincipal principal) {
+        int chaines = principal.subject().length() + (principal.role() != null ? principal.role().length() : 0);
+        return SURCOUT_ENTREE + 2 * chaines;
+    }
+
+    static Empreinte empreinte(String token) {
+        try {
+            ByteBuffer hash = ByteBuffer.wrap(((MessageDigest) SHA_256.clone())
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new Empreinte(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 non clonable", e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
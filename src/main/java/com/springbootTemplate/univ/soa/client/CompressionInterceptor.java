@@ -0,0 +1,119 @@
+package com.springbootTemplate.univ.soa.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression gzip des échanges avec ms-persistance.
+ * Requêtes : corps compressé au-delà du seuil, si activé (ms-persistance doit accepter Content-Encoding: gzip).
+ * Réponses : uniquement pour le transport HTTP/2 du JDK, qui ne décompresse pas seul ; le pool Apache
+ * HttpClient 5 annonce déjà Accept-Encoding et décompresse à la volée.
+ */
+public class CompressionInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String GZIP = "gzip";
+
+    private final boolean compresserRequetes;
+    private final int seuil;
+    private final boolean decompresserReponses;
+
+    public CompressionInterceptor(boolean compresserRequetes, int seuil, boolean decompresserReponses) {
+        this.compresserRequetes = compresserRequetes;
+        this.seuil = seuil;
+        this.decompresserReponses = decompresserReponses;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        HttpHeaders headers = request.getHeaders();
+        byte[] corps = body;
+        if (compresserRequetes && body.length >= seuil && !headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            corps = gzip(body);
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            headers.setContentLength(corps.length);
+        }
+        if (decompresserReponses) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, GZIP);
+        }
+
+        ClientHttpResponse response = execution.execute(request, corps);
+        if (decompresserReponses && GZIP.equalsIgnoreCase(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))) {
+            return new GzipResponse(response);
+        }
+        return response;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Réponse décompressée à la lecture, sans jamais matérialiser le corps complet
+     */
+    private static final class GzipResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final HttpHeaders headers;
+        private InputStream body;
+
+        private GzipResponse(ClientHttpResponse delegate) {
+            this.delegate = delegate;
+            this.headers = new HttpHeaders();
+            this.headers.putAll(delegate.getHeaders());
+            this.headers.remove(HttpHeaders.CONTENT_ENCODING);
+            this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new GZIPInputStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            // Libère l'Inflater natif sans attendre le GC, puis la connexion
+            try {
+                if (body != null) {
+                    body.close();
+                }
+            } catch (IOException e) {
+                // Flux déjà rompu : rien d'autre à libérer
+            } finally {
+                delegate.close();
+            }
+        }
+    }
+}
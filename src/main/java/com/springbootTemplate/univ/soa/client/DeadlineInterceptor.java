@@ -0,0 +1,24 @@
+package com.springbootTemplate.univ.soa.client;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Abandonne l'appel si l'échéance de la requête est dépassée, sinon transmet le temps restant à ms-persistance
+ */
+public class DeadlineInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (RequestDeadline.isSet()) {
+            long restant = RequestDeadline.check("appel " + request.getMethod() + " " + request.getURI().getPath());
+            request.getHeaders().set(RequestDeadline.HEADER, Long.toString(restant));
+        }
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,113 @@
+package com.springbootTemplate.univ.soa.client;
+
+import com.springbootTemplate.univ.soa.exception.DeadlineExceededException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Appels indépendants lancés en parallèle sur des threads virtuels, à la manière de
+ * StructuredTaskScope.ShutdownOnFailure (encore en preview en Java 21) :
+ * fork() lance un appel, join() attend qu'ils soient tous terminés, et le premier échec annule les autres.
+ * L'échéance de la requête (RequestDeadline) est propagée à chaque appel et borne l'attente.
+ * close() ne rend la main qu'une fois tous les threads du scope terminés.
+ * <pre>
+ * try (FetchScope scope = new FetchScope()) {
+ *     Supplier&lt;A&gt; a = scope.fork(() -&gt; ...);
+ *     Supplier&lt;B&gt; b = scope.fork(() -&gt; ...);
+ *     scope.join();
+ *     ... a.get(), b.get()
+ * }
+ * </pre>
+ */
+public final class FetchScope implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorCompletionService<Object> completions = new ExecutorCompletionService<>(executor);
+    private final List<Future<Object>> appels = new ArrayList<>();
+    private boolean joint;
+
+    public <T> Supplier<T> fork(Supplier<T> appel) {
+        if (joint) {
+            throw new IllegalStateException("fork() après join()");
+        }
+        Supplier<T> propage = RequestDeadline.propagate(appel);
+        Future<Object> future = completions.submit(propage::get);
+        appels.add(future);
+        return () -> {
+            if (!joint || !future.isDone() || future.isCancelled()) {
+                throw new IllegalStateException("Résultat indisponible avant un join() réussi");
+            }
+            return resultat(future);
+        };
+    }
+
+    /**
+     * Attendre tous les appels ; au premier échec (ou à l'échéance), annuler les autres et lever l'erreur
+     */
+    public void join() {
+        joint = true;
+        try {
+            for (int restants = appels.size(); restants > 0; restants--) {
+                long resteMs = RequestDeadline.remainingMillis();
+                Future<Object> termine = resteMs == Long.MAX_VALUE
+                        ? completions.take()
+                        : completions.poll(Math.max(0, resteMs), TimeUnit.MILLISECONDS);
+                if (termine == null) {
+                    annuler();
+                    throw new DeadlineExceededException("Échéance dépassée pendant les appels parallèles");
+                }
+                try {
+                    termine.get();
+                } catch (ExecutionException e) {
+                    annuler();
+                    throw relancer(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            annuler();
+            throw new CancellationException("Interrompu pendant les appels parallèles");
+        }
+    }
+
+    @Override
+    public void close() {
+        annuler();
+        executor.close();
+    }
+
+    private void annuler() {
+        appels.forEach(appel -> appel.cancel(true));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T resultat(Future<Object> future) {
+        try {
+            return (T) future.get();
+        } catch (ExecutionException e) {
+            throw relancer(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrompu");
+        }
+    }
+
+    private static RuntimeException relancer(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+}
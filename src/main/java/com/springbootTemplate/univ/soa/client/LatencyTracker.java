@@ -0,0 +1,55 @@
+package com.springbootTemplate.univ.soa.client;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latences récentes d'un type d'appel (fenêtre circulaire de taille fixe).
+ * Le percentile est recalculé tous les RECALCUL échantillons seulement : la lecture du délai
+ * de hedging reste un simple accès volatile sur le chemin chaud.
+ */
+public class LatencyTracker {
+
+    private static final int RECALCUL = 32;
+
+    private final AtomicLongArray echantillons;
+    private final AtomicLong compteur = new AtomicLong();
+    private final double percentile;
+    private volatile long percentileNanos = -1;
+
+    public LatencyTracker(int taille, double percentile) {
+        this.echantillons = new AtomicLongArray(taille);
+        this.percentile = percentile;
+    }
+
+    public void record(long nanos) {
+        long n = compteur.getAndIncrement();
+        echantillons.set((int) (n % echantillons.length()), nanos);
+        if ((n + 1) % RECALCUL == 0) {
+            percentileNanos = calculer();
+        }
+    }
+
+    /**
+     * Percentile configuré des latences récentes, ou -1 tant que la fenêtre n'a pas assez d'échantillons
+     */
+    public long percentileNanos() {
+        return percentileNanos;
+    }
+
+    public long count() {
+        return compteur.get();
+    }
+
+    private long calculer() {
+        int n = (int) Math.min(compteur.get(), echantillons.length());
+        long[] copie = new long[n];
+        for (int i = 0; i < n; i++) {
+            copie[i] = echantillons.get(i);
+        }
+        Arrays.sort(copie);
+        int rang = (int) Math.ceil(percentile / 100.0 * n) - 1;
+        return copie[Math.max(0, Math.min(n - 1, rang))];
+    }
+}
@@ -0,0 +1,59 @@
+package com.springbootTemplate.univ.soa.client;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Réécrit l'hôte de chaque appel vers le réplica choisi par PersistanceLoadBalancer.
+ * Les erreurs d'I/O et les réponses 502/503/504 comptent comme des échecs du réplica.
+ */
+public class LoadBalancingInterceptor implements ClientHttpRequestInterceptor {
+
+    private final PersistanceLoadBalancer loadBalancer;
+
+    public LoadBalancingInterceptor(PersistanceLoadBalancer loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        PersistanceLoadBalancer.Endpoint endpoint = loadBalancer.choose();
+        URI cible = UriComponentsBuilder.fromUri(request.getURI())
+                .scheme(endpoint.uri().getScheme())
+                .host(endpoint.uri().getHost())
+                .port(endpoint.uri().getPort())
+                .build(true)
+                .toUri();
+
+        HttpRequest redirigee = new HttpRequestWrapper(request) {
+            @Override
+            public URI getURI() {
+                return cible;
+            }
+        };
+
+        endpoint.start();
+        long debut = System.nanoTime();
+        try {
+            ClientHttpResponse response = execution.execute(redirigee, body);
+            int status = response.getStatusCode().value();
+            if (status == 502 || status == 503 || status == 504) {
+                endpoint.failure(System.nanoTime() - debut);
+            } else {
+                endpoint.success(System.nanoTime() - debut);
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            endpoint.failure(System.nanoTime() - debut);
+            throw e;
+        }
+    }
+}
@@ -1,33 +1,89 @@
 package com.springbootTemplate.univ.soa.client;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.springbootTemplate.univ.soa.dto.*;
+import com.springbootTemplate.univ.soa.exception.DeadlineExceededException;
+import com.springbootTemplate.univ.soa.exception.EmailAlreadyExistsException;
+import com.springbootTemplate.univ.soa.exception.InvalidCredentialsException;
+import com.springbootTemplate.univ.soa.exception.PersistanceUnavailableException;
 import com.springbootTemplate.univ.soa.exception.UtilisateurNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.DefaultResponseErrorHandler;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class PersistanceClient {
+public class PersistanceClient implements MeterBinder {
 
     private final RestTemplate restTemplate;
+    private final RestClient restClient;
+    private final PersistanceResilience resilience;
+    private final PersistanceHedging hedging;
+
+    // Regroupement des lectures concurrentes identiques
+    private final SingleFlight<Long, Optional<UtilisateurResponseDto>> lecturesParId = new SingleFlight<>();
+    private final SingleFlight<String, Optional<UtilisateurResponseDto>> lecturesParEmail = new SingleFlight<>();
+
+    // Lectures groupées : appels parallèles sur threads virtuels, bornés par persistance.batch.max-concurrency
+    private final ExecutorService batchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean batchNatifDisponible = new AtomicBoolean(true);
 
     @Value("${persistance.service.url}")
     private String persistanceServiceUrl;
 
+    // Attente maximale d'un appelant regroupé sur la lecture identique déjà en cours
+    @Value("${persistance.singleflight.max-wait-ms:10000}")
+    private long singleFlightMaxWaitMs = 10_000;
+
+    @Value("${persistance.batch.native-enabled:false}")
+    private boolean batchNatifActive;
+
+    @Value("${persistance.batch.max-concurrency:8}")
+    private int batchMaxConcurrency;
+
+    @Value("${persistance.patch.native-enabled:false}")
+    private boolean patchNatifActive;
+
+    private final AtomicBoolean patchNatifDisponible = new AtomicBoolean(true);
+
     private static final String UTILISATEURS_PATH = "/api/persistance/utilisateurs";
 
+    // Traduction des statuts d'erreur (hors 404) en HttpClientErrorException / HttpServerErrorException
+    private static final ResponseErrorHandler ERROR_HANDLER = new DefaultResponseErrorHandler();
+
     /**
-     * Créer un utilisateur via ms-persistance
+     * Créer un utilisateur via ms-persistance, en un seul aller-retour : la création est conditionnelle
+     * (If-None-Match: *) et l'unicité de l'email est arbitrée par ms-persistance.
+     * Un 409 / 412 devient EmailAlreadyExistsException.
      */
     public UtilisateurResponseDto createUtilisateur(UtilisateurCreateDto createDto) {
         String url = persistanceServiceUrl + UTILISATEURS_PATH;
@@ -37,42 +93,121 @@ public class PersistanceClient {
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setIfNoneMatch("*");
 
             HttpEntity<UtilisateurCreateDto> request = new HttpEntity<>(createDto, headers);
 
-            ResponseEntity<UtilisateurResponseDto> response = restTemplate.exchange(
+            ResponseEntity<UtilisateurResponseDto> response = resilience.execute(PersistanceOperation.WRITE, () -> restTemplate.exchange(
                     url,
                     HttpMethod.POST,
                     request,
                     UtilisateurResponseDto.class
-            );
+            ));
 
             log.info("✅ Utilisateur créé avec succès via ms-persistance");
             return response.getBody();
 
         } catch (HttpClientErrorException e) {
+            if (e.getStatusCode().value() == HttpStatus.CONFLICT.value()
+                    || e.getStatusCode().value() == HttpStatus.PRECONDITION_FAILED.value()) {
+                log.warn("⚠️ Email déjà utilisé (refus de ms-persistance): {}", createDto.getEmail());
+                throw new EmailAlreadyExistsException("Cet email est déjà utilisé");
+            }
             log.error("❌ Erreur lors de la création de l'utilisateur: {}", e.getMessage());
             throw e;
         }
     }
 
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        lecturesParId.bindTo(registry, "getUtilisateurById");
+        lecturesParEmail.bindTo(registry, "getUtilisateurByEmail");
+    }
+
+    /**
+     * Lecture idempotente : retries à l'extérieur du hedging, chaque appel passant par le circuit breaker et le bulkhead.
+     * Seule la première tentative peut être doublée : au plus retry.max-attempts + 1 appels vers ms-persistance.
+     */
+    private <T> T lire(PersistanceOperation operation, Supplier<T> call) {
+        AtomicBoolean premiere = new AtomicBoolean(true);
+        return resilience.retry(operation, () -> premiere.getAndSet(false)
+                ? hedging.execute(operation, () -> resilience.execute(operation, call))
+                : resilience.execute(operation, call));
+    }
+
+    /**
+     * GET dont le 404 est un résultat normal : Optional vide, sans exception ni trace de pile.
+     * Les autres erreurs sont levées comme avec RestTemplate (et comptées par le circuit breaker).
+     */
+    private <T> Optional<T> trouver(PersistanceOperation operation, String url, Class<T> type) {
+        return lire(operation, () -> restClient.get()
+                .uri(url)
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().value() == HttpStatus.NOT_FOUND.value()) {
+                        return Optional.<T>empty();
+                    }
+                    if (ERROR_HANDLER.hasError(response)) {
+                        ERROR_HANDLER.handleError(response);
+                    }
+                    return Optional.ofNullable(response.bodyTo(type));
+                }));
+    }
+
+    /**
+     * Rechercher un utilisateur par ID (les appels concurrents pour le même ID partagent une seule requête)
+     */
+    public Optional<UtilisateurResponseDto> findUtilisateurById(Long id) {
+        return lecturesParId.execute(id, singleFlightMaxWaitMs, () -> {
+            log.info("📤 Appel GET vers ms-persistance pour l'ID: {}", id);
+            Optional<UtilisateurResponseDto> utilisateur =
+                    trouver(PersistanceOperation.READ, persistanceServiceUrl + UTILISATEURS_PATH + "/" + id, UtilisateurResponseDto.class);
+            if (utilisateur.isEmpty()) {
+                log.debug("Utilisateur absent avec l'ID: {}", id);
+            }
+            return utilisateur;
+        });
+    }
+
     /**
      * Récupérer un utilisateur par ID
      */
     public UtilisateurResponseDto getUtilisateurById(Long id) {
-        String url = persistanceServiceUrl + UTILISATEURS_PATH + "/" + id;
+        return findUtilisateurById(id)
+                .orElseThrow(() -> new UtilisateurNotFoundException("Utilisateur non trouvé avec l'ID: " + id));
+    }
 
-        try {
-            log.info("📤 Appel GET vers ms-persistance: {}", url);
+    /**
+     * Rechercher un utilisateur par email (les appels concurrents pour le même email partagent une seule requête)
+     */
+    public Optional<UtilisateurResponseDto> findUtilisateurByEmail(String email) {
+        return lecturesParEmail.execute(email, singleFlightMaxWaitMs, () -> {
+            log.info("📤 Appel GET vers ms-persistance pour l'email: {}", email);
+            Optional<UtilisateurResponseDto> utilisateur =
+                    trouver(PersistanceOperation.READ, persistanceServiceUrl + UTILISATEURS_PATH + "/email/" + email, UtilisateurResponseDto.class);
+            if (utilisateur.isEmpty()) {
+                log.debug("Utilisateur absent avec l'email: {}", email);
+            }
+            return utilisateur;
+        });
+    }
 
-            ResponseEntity<UtilisateurResponseDto> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    null,
-                    UtilisateurResponseDto.class
-            );
+    /**
+     * Récupérer un utilisateur par email
+     */
+    public UtilisateurResponseDto getUtilisateurByEmail(String email) {
+        return findUtilisateurByEmail(email)
+                .orElseThrow(() -> new UtilisateurNotFoundException("Utilisateur non trouvé avec l'email: " + email));
+    }
 
-            return response.getBody();
+    /**
+     * Copier tel quel le JSON d'un utilisateur (par ID) renvoyé par ms-persistance, sans décodage Jackson
+     */
+    public void streamUtilisateurById(Long id, OutputStream out) {
+        String url = persistanceServiceUrl + UTILISATEURS_PATH + "/" + id;
+
+        try {
+            log.info("📤 Appel GET (pass-through) vers ms-persistance: {}", url);
+            stream(url, out);
 
         } catch (HttpClientErrorException.NotFound e) {
             log.error("❌ Utilisateur non trouvé avec l'ID: {}", id);
@@ -81,22 +216,14 @@ public class PersistanceClient {
     }
 
     /**
-     * Récupérer un utilisateur par email
+     * Copier tel quel le JSON d'un utilisateur (par email) renvoyé par ms-persistance, sans décodage Jackson
      */
-    public UtilisateurResponseDto getUtilisateurByEmail(String email) {
+    public void streamUtilisateurByEmail(String email, OutputStream out) {
         String url = persistanceServiceUrl + UTILISATEURS_PATH + "/email/" + email;
 
         try {
-            log.info("📤 Appel GET vers ms-persistance pour l'email: {}", email);
-
-            ResponseEntity<UtilisateurResponseDto> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    null,
-                    UtilisateurResponseDto.class
-            );
-
-            return response.getBody();
+            log.info("📤 Appel GET (pass-through) vers ms-persistance pour l'email: {}", email);
+            stream(url, out);
 
         } catch (HttpClientErrorException.NotFound e) {
             log.error("❌ Utilisateur non trouvé avec l'email: {}", email);
@@ -104,6 +231,127 @@ public class PersistanceClient {
         }
     }
 
+    /**
+     * Les erreurs HTTP sont levées par le ResponseErrorHandler avant l'extracteur : aucun octet n'est
+     * écrit dans out tant que ms-persistance n'a pas répondu 2xx.
+     */
+    private void stream(String url, OutputStream out) {
+        resilience.execute(PersistanceOperation.READ, () -> restTemplate.execute(
+                url,
+                HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_JSON)),
+                response -> StreamUtils.copy(response.getBody(), out)
+        ));
+    }
+
+    /**
+     * Récupérer plusieurs utilisateurs par ID. Les IDs inconnus sont simplement absents de la map.
+     */
+    public Map<Long, UtilisateurResponseDto> getUtilisateursByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        List<UtilisateurResponseDto> natif = fetchBatchNatif(Map.of("ids", ids));
+        if (natif != null) {
+            return indexer(natif, UtilisateurResponseDto::getId);
+        }
+        return fanOut(ids, this::findUtilisateurById);
+    }
+
+    /**
+     * Récupérer plusieurs utilisateurs par email. Les emails inconnus sont simplement absents de la map.
+     */
+    public Map<String, UtilisateurResponseDto> getUtilisateursByEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Map.of();
+        }
+        List<UtilisateurResponseDto> natif = fetchBatchNatif(Map.of("emails", emails));
+        if (natif != null) {
+            return indexer(natif, UtilisateurResponseDto::getEmail);
+        }
+        return fanOut(emails, this::findUtilisateurByEmail);
+    }
+
+    /**
+     * Appel groupé natif (POST /batch) si activé et supporté par ms-persistance, sinon null
+     */
+    private List<UtilisateurResponseDto> fetchBatchNatif(Map<String, Collection<?>> criteres) {
+        if (!batchNatifActive || !batchNatifDisponible.get()) {
+            return null;
+        }
+        String url = persistanceServiceUrl + UTILISATEURS_PATH + "/batch";
+
+        try {
+            log.info("📤 Appel POST groupé vers ms-persistance: {}", url);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+
+            ResponseEntity<List<UtilisateurResponseDto>> response = resilience.execute(PersistanceOperation.READ, () -> restTemplate.exchange(
+                    url,
+                    HttpMethod.POST,
+                    new HttpEntity<>(criteres, headers),
+                    new ParameterizedTypeReference<>() {}
+            ));
+
+            return response.getBody() != null ? response.getBody() : List.of();
+
+        } catch (HttpClientErrorException.NotFound | HttpClientErrorException.MethodNotAllowed e) {
+            log.warn("⚠️ ms-persistance ne supporte pas la lecture groupée, repli sur des appels parallèles");
+            batchNatifDisponible.set(false);
+            return null;
+        }
+    }
+
+    private <K> Map<K, UtilisateurResponseDto> fanOut(Collection<K> cles,
+                                                      Function<K, Optional<UtilisateurResponseDto>> lecture) {
+        Semaphore permis = new Semaphore(batchMaxConcurrency);
+        Map<K, Future<Optional<UtilisateurResponseDto>>> appels = new LinkedHashMap<>();
+
+        for (K cle : new LinkedHashSet<>(cles)) {
+            Supplier<Optional<UtilisateurResponseDto>> appel = RequestDeadline.propagate(() -> lecture.apply(cle));
+            appels.put(cle, batchExecutor.submit(() -> {
+                permis.acquire();
+                try {
+                    return appel.get();
+                } finally {
+                    permis.release();
+                }
+            }));
+        }
+
+        Map<K, UtilisateurResponseDto> resultats = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<K, Future<Optional<UtilisateurResponseDto>>> appel : appels.entrySet()) {
+                appel.getValue().get().ifPresent(utilisateur -> resultats.put(appel.getKey(), utilisateur));
+            }
+            return resultats;
+
+        } catch (ExecutionException e) {
+            appels.values().forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Erreur lors de la lecture groupée des utilisateurs", e.getCause());
+        } catch (InterruptedException e) {
+            appels.values().forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Lecture groupée interrompue", e);
+        }
+    }
+
+    private static <K> Map<K, UtilisateurResponseDto> indexer(List<UtilisateurResponseDto> utilisateurs,
+                                                             Function<UtilisateurResponseDto, K> cle) {
+        Map<K, UtilisateurResponseDto> resultats = new LinkedHashMap<>();
+        utilisateurs.forEach(u -> resultats.put(cle.apply(u), u));
+        return resultats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+
     /**
      * Récupérer tous les utilisateurs
      */
@@ -113,12 +361,12 @@ public class PersistanceClient {
         try {
             log.info("📤 Appel GET vers ms-persistance pour récupérer tous les utilisateurs");
 
-            ResponseEntity<List<UtilisateurResponseDto>> response = restTemplate.exchange(
+            ResponseEntity<List<UtilisateurResponseDto>> response = resilience.executeIdempotent(PersistanceOperation.READ, () -> restTemplate.exchange(
                     url,
                     HttpMethod.GET,
                     null,
                     new ParameterizedTypeReference<>() {}
-            );
+            ));
 
             return response.getBody();
 
@@ -145,12 +393,12 @@ public class PersistanceClient {
 
             HttpEntity<MsPersistanceUtilisateurDto> request = new HttpEntity<>(fullDto, headers);
 
-            ResponseEntity<UtilisateurResponseDto> response = restTemplate.exchange(
+            ResponseEntity<UtilisateurResponseDto> response = resilience.execute(PersistanceOperation.WRITE, () -> restTemplate.exchange(
                     url,
                     HttpMethod.PUT,
                     request,
                     UtilisateurResponseDto.class
-            );
+            ));
 
             log.info("✅ Utilisateur mis à jour avec succès via ms-persistance");
             return response.getBody();
@@ -162,12 +410,52 @@ public class PersistanceClient {
             log.error("❌ Erreur HTTP {} lors de la mise à jour: {}",
                     e.getStatusCode(), e.getResponseBodyAsString());
             throw e;
+        } catch (PersistanceUnavailableException | DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("❌ Erreur inattendue lors de la mise à jour: {}", e.getMessage(), e);
             throw new RuntimeException("Erreur lors de la mise à jour de l'utilisateur", e);
         }
     }
 
+    /**
+     * Mise à jour partielle native (PATCH merge-patch+json, seuls les champs modifiés sont envoyés)
+     * si activée et supportée par ms-persistance ; Optional vide sinon (l'appelant se replie sur un PUT complet)
+     */
+    public Optional<UtilisateurResponseDto> patchUtilisateur(Long id, JsonNode patch) {
+        if (!patchNatifActive || !patchNatifDisponible.get()) {
+            return Optional.empty();
+        }
+        String url = persistanceServiceUrl + UTILISATEURS_PATH + "/" + id;
+
+        try {
+            log.info("📤 Appel PATCH vers ms-persistance: {} - champs: {}", url, patch.size());
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.valueOf("application/merge-patch+json"));
+
+            ResponseEntity<UtilisateurResponseDto> response = resilience.execute(PersistanceOperation.WRITE, () -> restTemplate.exchange(
+                    url,
+                    HttpMethod.PATCH,
+                    new HttpEntity<>(patch, headers),
+                    UtilisateurResponseDto.class
+            ));
+            return Optional.ofNullable(response.getBody());
+
+        } catch (HttpClientErrorException.MethodNotAllowed | HttpClientErrorException.UnsupportedMediaType e) {
+            log.warn("⚠️ ms-persistance ne supporte pas PATCH, repli sur des PUT complets");
+            patchNatifDisponible.set(false);
+            return Optional.empty();
+        } catch (HttpClientErrorException.NotFound e) {
+            throw new UtilisateurNotFoundException("Utilisateur non trouvé avec l'ID: " + id);
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode().value() == HttpStatus.CONFLICT.value()) {
+                throw new EmailAlreadyExistsException("Cet email est déjà utilisé");
+            }
+            throw e;
+        }
+    }
+
     /**
      * Supprimer un utilisateur
      */
@@ -177,12 +465,12 @@ public class PersistanceClient {
         try {
             log.info("📤 Appel DELETE vers ms-persistance: {}", url);
 
-            restTemplate.exchange(
+            resilience.execute(PersistanceOperation.WRITE, () -> restTemplate.exchange(
                     url,
                     HttpMethod.DELETE,
                     null,
                     Void.class
-            );
+            ));
 
             log.info("✅ Utilisateur supprimé avec succès via ms-persistance");
 
@@ -196,36 +484,28 @@ public class PersistanceClient {
      * Vérifier si un email existe déjà
      */
     public boolean existsByEmail(String email) {
-        try {
-            getUtilisateurByEmail(email);
-            return true;
-        } catch (UtilisateurNotFoundException e) {
-            return false;
-        }
+        return findUtilisateurByEmail(email).isPresent();
     }
 
     /**
      * Récupérer un utilisateur avec son hash de mot de passe pour l'authentification
      */
     public UtilisateurAuthDto getUtilisateurForAuth(String email) {
-        String url = persistanceServiceUrl + UTILISATEURS_PATH + "/auth/" + email;
-
-        try {
-            log.info("📤 Appel GET vers ms-persistance pour authentification: {}", email);
-
-            ResponseEntity<UtilisateurAuthDto> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    null,
-                    UtilisateurAuthDto.class
-            );
-
-            return response.getBody();
+        return findUtilisateurForAuth(email)
+                .orElseThrow(() -> new UtilisateurNotFoundException("Utilisateur non trouvé avec l'email: " + email));
+    }
 
-        } catch (HttpClientErrorException.NotFound e) {
-            log.error("❌ Utilisateur non trouvé avec l'email: {}", email);
-            throw new UtilisateurNotFoundException("Utilisateur non trouvé avec l'email: " + email);
+    /**
+     * Rechercher un utilisateur avec son hash de mot de passe (Optional vide si l'email est inconnu)
+     */
+    public Optional<UtilisateurAuthDto> findUtilisateurForAuth(String email) {
+        log.info("📤 Appel GET vers ms-persistance pour authentification: {}", email);
+        Optional<UtilisateurAuthDto> utilisateur =
+                trouver(PersistanceOperation.AUTH, persistanceServiceUrl + UTILISATEURS_PATH + "/auth/" + email, UtilisateurAuthDto.class);
+        if (utilisateur.isEmpty()) {
+            log.debug("Utilisateur absent avec l'email: {}", email);
         }
+        return utilisateur;
     }
 
     /**
@@ -237,12 +517,12 @@ public class PersistanceClient {
         try {
             log.info("📤 Génération du token de réinitialisation pour l'utilisateur ID: {}", utilisateurId);
 
-            ResponseEntity<Map> response = restTemplate.exchange(
+            ResponseEntity<Map> response = resilience.execute(PersistanceOperation.RESET_TOKEN, () -> restTemplate.exchange(
                     url,
                     HttpMethod.POST,
                     null,
                     Map.class
-            );
+            ));
 
             String token = (String) response.getBody().get("token");
             log.info("✅ Token généré avec succès");
@@ -263,12 +543,12 @@ public class PersistanceClient {
         try {
             log.info("📤 Validation du token de réinitialisation");
 
-            ResponseEntity<Map> response = restTemplate.exchange(
+            ResponseEntity<Map> response = resilience.executeIdempotent(PersistanceOperation.RESET_TOKEN, () -> restTemplate.exchange(
                     url,
                     HttpMethod.GET,
                     null,
                     Map.class
-            );
+            ));
 
             Map<String, Object> body = response.getBody();
 
@@ -303,12 +583,12 @@ public class PersistanceClient {
 
             HttpEntity<Map<String, String>> entity = new HttpEntity<>(request, headers);
 
-            restTemplate.exchange(
+            resilience.execute(PersistanceOperation.WRITE, () -> restTemplate.exchange(
                     url,
                     HttpMethod.PUT,
                     entity,
                     Map.class
-            );
+            ));
 
             log.info("✅ Mot de passe mis à jour avec succès");
 
@@ -327,17 +607,19 @@ public class PersistanceClient {
         try {
             log.info("📤 Marquage du token comme utilisé");
 
-            restTemplate.exchange(
+            resilience.execute(PersistanceOperation.RESET_TOKEN, () -> restTemplate.exchange(
                     url,
                     HttpMethod.POST,
                     null,
                     Map.class
-            );
+            ));
 
             log.info("✅ Token marqué comme utilisé");
 
         } catch (HttpClientErrorException e) {
-            log.error("❌ Erreur lors du marquage du token: {}", e.getMessage());
+            // Token déjà consommé (ou expiré entre-temps) : la réinitialisation ne doit pas aboutir
+            log.warn("⚠️ Token refusé lors du marquage: {}", e.getMessage());
+            throw new InvalidCredentialsException("Token invalide, expiré ou déjà utilisé");
         }
     }
 }
\ No newline at end of file
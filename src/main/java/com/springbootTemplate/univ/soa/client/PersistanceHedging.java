@@ -0,0 +1,178 @@
+package com.springbootTemplate.univ.soa.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedging des lectures idempotentes vers ms-persistance.
+ * Si la première tentative n'a pas répondu après le percentile configuré des latences récentes
+ * (borné par min/max), une seconde tentative est envoyée ; la première réponse gagne et l'autre est annulée.
+ * Les tentatives supplémentaires sont limitées par un RequestBudget proportionnel au trafic.
+ */
+@Slf4j
+public class PersistanceHedging implements MeterBinder {
+
+    // Nombre minimal d'échantillons avant de se fier au percentile
+    private static final int ECHANTILLONS_MIN = 32;
+
+    private final boolean active;
+    private final long delaiMinNanos;
+    private final long delaiMaxNanos;
+    private final RequestBudget budget;
+    private final Map<PersistanceOperation, LatencyTracker> latences = new EnumMap<>(PersistanceOperation.class);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LongAdder hedgesEnvoyes = new LongAdder();
+    private final LongAdder hedgesGagnants = new LongAdder();
+    private final LongAdder hedgesRefuses = new LongAdder();
+
+    public PersistanceHedging(boolean active, double percentile, long delaiMinMs, long delaiMaxMs, RequestBudget budget) {
+        this.active = active;
+        this.delaiMinNanos = TimeUnit.MILLISECONDS.toNanos(delaiMinMs);
+        this.delaiMaxNanos = TimeUnit.MILLISECONDS.toNanos(delaiMaxMs);
+        this.budget = budget;
+        for (PersistanceOperation operation : PersistanceOperation.values()) {
+            latences.put(operation, new LatencyTracker(256, percentile));
+        }
+    }
+
+    public <T> T execute(PersistanceOperation operation, Supplier<T> call) {
+        if (!active) {
+            return call.get();
+        }
+        budget.deposit();
+        Supplier<T> tentative = RequestDeadline.propagate(call);
+
+        CompletionService<T> tentatives = new ExecutorCompletionService<>(executor);
+        List<Future<T>> enCours = new ArrayList<>(2);
+        enCours.add(tentatives.submit(() -> mesurer(operation, tentative)));
+
+        try {
+            Future<T> premiere = tentatives.poll(delaiNanos(operation), TimeUnit.NANOSECONDS);
+            if (premiere == null) {
+                if (budget.tryAcquire()) {
+                    hedgesEnvoyes.increment();
+                    log.debug("⏱️ Hedging {} : seconde tentative envoyée", operation.nom());
+                    enCours.add(tentatives.submit(() -> mesurer(operation, tentative)));
+                } else {
+                    hedgesRefuses.increment();
+                }
+                premiere = tentatives.take();
+            }
+            return resultat(tentatives, enCours, premiere);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Appel vers ms-persistance interrompu", e);
+        } finally {
+            enCours.forEach(f -> f.cancel(true));
+        }
+    }
+
+    /**
+     * Si la tentative terminée en premier a échoué et qu'une autre est encore en cours, on attend celle-ci
+     */
+    private <T> T resultat(CompletionService<T> tentatives, List<Future<T>> enCours, Future<T> premiere)
+            throws InterruptedException {
+        try {
+            T valeur = premiere.get();
+            if (premiere != enCours.get(0)) {
+                hedgesGagnants.increment();
+            }
+            return valeur;
+        } catch (ExecutionException e) {
+            if (enCours.size() > 1) {
+                Future<T> seconde = tentatives.take();
+                try {
+                    return seconde.get();
+                } catch (ExecutionException ignored) {
+                    // On remonte l'erreur de la première tentative terminée
+                }
+            }
+            throw propager(e);
+        }
+    }
+
+    private <T> T mesurer(PersistanceOperation operation, Supplier<T> call) {
+        long debut = System.nanoTime();
+        T valeur = call.get();
+        latences.get(operation).record(System.nanoTime() - debut);
+        return valeur;
+    }
+
+    long delaiNanos(PersistanceOperation operation) {
+        LatencyTracker tracker = latences.get(operation);
+        long percentile = tracker.percentileNanos();
+        if (tracker.count() < ECHANTILLONS_MIN || percentile < 0) {
+            return delaiMaxNanos;
+        }
+        return Math.max(delaiMinNanos, Math.min(delaiMaxNanos, percentile));
+    }
+
+    private static RuntimeException propager(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (e.getCause() instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException("Erreur lors de l'appel vers ms-persistance", e.getCause());
+    }
+
+    public long hedgeCount() {
+        return hedgesEnvoyes.sum();
+    }
+
+    public long hedgeWinCount() {
+        return hedgesGagnants.sum();
+    }
+
+    public long budgetRejectedCount() {
+        return hedgesRefuses.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("persistance.hedging.requests", hedgesEnvoyes, LongAdder::sum)
+                .tag("outcome", "sent")
+                .description("Secondes tentatives envoyées à ms-persistance")
+                .register(registry);
+        FunctionCounter.builder("persistance.hedging.requests", hedgesGagnants, LongAdder::sum)
+                .tag("outcome", "won")
+                .description("Secondes tentatives ayant répondu en premier")
+                .register(registry);
+        FunctionCounter.builder("persistance.hedging.requests", hedgesRefuses, LongAdder::sum)
+                .tag("outcome", "budget_exhausted")
+                .description("Secondes tentatives non envoyées faute de budget")
+                .register(registry);
+        Gauge.builder("persistance.hedging.budget", budget, RequestBudget::available)
+                .description("Jetons disponibles pour des tentatives supplémentaires")
+                .register(registry);
+        latences.forEach((operation, tracker) ->
+                Gauge.builder("persistance.hedging.delay", this, h -> h.delaiNanos(operation) / 1_000_000.0)
+                        .tag("operation", operation.nom())
+                        .baseUnit("milliseconds")
+                        .register(registry));
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
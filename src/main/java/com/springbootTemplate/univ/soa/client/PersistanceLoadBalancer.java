@@ -0,0 +1,239 @@
+package com.springbootTemplate.univ.soa.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Répartition des appels vers les réplicas de ms-persistance, requête par requête.
+ * Choix "power of two choices" : deux réplicas tirés au hasard, on garde celui qui a le moins d'appels
+ * en cours (puis la plus faible latence moyenne). Un réplica qui enchaîne les erreurs est écarté
+ * temporairement (éjection passive) ; si tous sont écartés, on les réutilise tous plutôt que d'échouer.
+ * La liste des réplicas vient d'une source rafraîchie périodiquement (liste fixe ou résolution DNS).
+ */
+@Slf4j
+public class PersistanceLoadBalancer implements MeterBinder {
+
+    private final Supplier<List<URI>> source;
+    private final int echecsAvantEjection;
+    private final long dureeEjectionNanos;
+    private volatile List<Endpoint> endpoints = List.of();
+    private volatile MeterRegistry registry;
+
+    public PersistanceLoadBalancer(Supplier<List<URI>> source, int echecsAvantEjection, long dureeEjectionMs) {
+        this.source = source;
+        this.echecsAvantEjection = echecsAvantEjection;
+        this.dureeEjectionNanos = TimeUnit.MILLISECONDS.toNanos(dureeEjectionMs);
+        refresh();
+    }
+
+    /**
+     * Recharger la liste des réplicas ; l'état (appels en cours, éjection, latence) des réplicas conservés est gardé
+     */
+    public synchronized void refresh() {
+        List<URI> uris;
+        try {
+            uris = source.get();
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Impossible de rafraîchir les réplicas de ms-persistance: {}", e.getMessage());
+            return;
+        }
+        if (uris.isEmpty()) {
+            log.warn("⚠️ Aucun réplica de ms-persistance trouvé, liste précédente conservée");
+            return;
+        }
+
+        Map<URI, Endpoint> actuels = new LinkedHashMap<>();
+        endpoints.forEach(e -> actuels.put(e.uri, e));
+        List<Endpoint> nouveaux = new ArrayList<>(uris.size());
+        for (URI uri : uris) {
+            Endpoint endpoint = actuels.remove(uri);
+            if (endpoint == null) {
+                endpoint = new Endpoint(uri);
+                if (registry != null) {
+                    endpoint.bindTo(registry);
+                }
+                log.info("➕ Réplica ms-persistance ajouté: {}", uri);
+            }
+            nouveaux.add(endpoint);
+        }
+        actuels.values().forEach(retire -> {
+            log.info("➖ Réplica ms-persistance retiré: {}", retire.uri);
+            retire.unbind();
+        });
+        endpoints = List.copyOf(nouveaux);
+    }
+
+    /**
+     * Réplica pour le prochain appel. ResourceAccessException (échec technique, comme une erreur réseau)
+     * tant qu'aucune liste n'a pu être chargée, par exemple si la première résolution DNS a échoué.
+     */
+    public Endpoint choose() {
+        List<Endpoint> tous = endpoints;
+        if (tous.isEmpty()) {
+            throw new ResourceAccessException("Aucun réplica de ms-persistance connu (liste pas encore chargée)");
+        }
+        long maintenant = System.nanoTime();
+        List<Endpoint> disponibles = new ArrayList<>(tous.size());
+        for (Endpoint endpoint : tous) {
+            if (!endpoint.estEjecte(maintenant)) {
+                disponibles.add(endpoint);
+            }
+        }
+        List<Endpoint> candidats = disponibles.isEmpty() ? tous : disponibles;
+        if (candidats.size() == 1) {
+            return candidats.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(candidats.size());
+        int j = random.nextInt(candidats.size() - 1);
+        if (j >= i) {
+            j++;
+        }
+        Endpoint a = candidats.get(i);
+        Endpoint b = candidats.get(j);
+        int enCoursA = a.enCours.get();
+        int enCoursB = b.enCours.get();
+        if (enCoursA != enCoursB) {
+            return enCoursA < enCoursB ? a : b;
+        }
+        return a.latenceMoyenneMs() <= b.latenceMoyenneMs() ? a : b;
+    }
+
+    public List<Endpoint> endpoints() {
+        return endpoints;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        endpoints.forEach(endpoint -> endpoint.bindTo(registry));
+    }
+
+    /**
+     * Un réplica de ms-persistance et ses statistiques
+     */
+    public final class Endpoint {
+
+        // Poids de la dernière mesure dans la moyenne mobile exponentielle de latence
+        private static final double ALPHA = 0.2;
+
+        private final URI uri;
+        private final AtomicInteger enCours = new AtomicInteger();
+        private final AtomicInteger echecsConsecutifs = new AtomicInteger();
+        private final AtomicLong ejecteJusqua = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicLong latenceMoyenne = new AtomicLong(Double.doubleToLongBits(0));
+        private final LongAdder succes = new LongAdder();
+        private final LongAdder echecs = new LongAdder();
+        private final LongAdder ejections = new LongAdder();
+        private final List<Meter> meters = new ArrayList<>();
+
+        private Endpoint(URI uri) {
+            this.uri = uri;
+        }
+
+        public URI uri() {
+            return uri;
+        }
+
+        public int outstanding() {
+            return enCours.get();
+        }
+
+        public double latenceMoyenneMs() {
+            return Double.longBitsToDouble(latenceMoyenne.get());
+        }
+
+        public boolean isEjected() {
+            return estEjecte(System.nanoTime());
+        }
+
+        public void start() {
+            enCours.incrementAndGet();
+        }
+
+        public void success(long dureeNanos) {
+            enCours.decrementAndGet();
+            echecsConsecutifs.set(0);
+            succes.increment();
+            enregistrerLatence(dureeNanos);
+        }
+
+        public void failure(long dureeNanos) {
+            enCours.decrementAndGet();
+            echecs.increment();
+            enregistrerLatence(dureeNanos);
+            if (echecsConsecutifs.incrementAndGet() >= echecsAvantEjection) {
+                echecsConsecutifs.set(0);
+                ejecteJusqua.set(System.nanoTime() + dureeEjectionNanos);
+                ejections.increment();
+                log.warn("⛔ Réplica ms-persistance écarté pour {} ms: {}",
+                        TimeUnit.NANOSECONDS.toMillis(dureeEjectionNanos), uri);
+            }
+        }
+
+        private boolean estEjecte(long maintenant) {
+            return maintenant - ejecteJusqua.get() < 0;
+        }
+
+        private void enregistrerLatence(long dureeNanos) {
+            double mesureMs = dureeNanos / 1_000_000.0;
+            latenceMoyenne.getAndUpdate(bits -> {
+                double moyenne = Double.longBitsToDouble(bits);
+                return Double.doubleToLongBits(moyenne == 0 ? mesureMs : moyenne + ALPHA * (mesureMs - moyenne));
+            });
+        }
+
+        private synchronized void bindTo(MeterRegistry registry) {
+            String tag = uri.toString();
+            meters.add(Gauge.builder("persistance.endpoint.outstanding", enCours, AtomicInteger::get)
+                    .tag("endpoint", tag)
+                    .description("Appels en cours vers ce réplica")
+                    .register(registry));
+            meters.add(Gauge.builder("persistance.endpoint.latency", this, Endpoint::latenceMoyenneMs)
+                    .tag("endpoint", tag)
+                    .baseUnit("milliseconds")
+                    .description("Latence moyenne mobile de ce réplica")
+                    .register(registry));
+            meters.add(Gauge.builder("persistance.endpoint.ejected", this, e -> e.isEjected() ? 1 : 0)
+                    .tag("endpoint", tag)
+                    .register(registry));
+            meters.add(FunctionCounter.builder("persistance.endpoint.requests", succes, LongAdder::sum)
+                    .tag("endpoint", tag)
+                    .tag("outcome", "success")
+                    .register(registry));
+            meters.add(FunctionCounter.builder("persistance.endpoint.requests", echecs, LongAdder::sum)
+                    .tag("endpoint", tag)
+                    .tag("outcome", "failure")
+                    .register(registry));
+            meters.add(FunctionCounter.builder("persistance.endpoint.ejections", ejections, LongAdder::sum)
+                    .tag("endpoint", tag)
+                    .register(registry));
+        }
+
+        private synchronized void unbind() {
+            MeterRegistry courant = registry;
+            if (courant != null) {
+                meters.forEach(courant::remove);
+            }
+            meters.clear();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.springbootTemplate.univ.soa.client;
+
+/**
+ * Familles d'appels vers ms-persistance.
+ * Chaque famille a son propre circuit breaker et son propre bulkhead : une lenteur sur les écritures
+ * ne bloque pas les connexions (AUTH), et inversement.
+ */
+public enum PersistanceOperation {
+    AUTH("persistance-auth"),
+    READ("persistance-read"),
+    WRITE("persistance-write"),
+    RESET_TOKEN("persistance-reset-token");
+
+    private final String nom;
+
+    PersistanceOperation(String nom) {
+        this.nom = nom;
+    }
+
+    public String nom() {
+        return nom;
+    }
+}
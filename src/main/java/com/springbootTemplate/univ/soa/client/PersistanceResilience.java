@@ -0,0 +1,186 @@
+package com.springbootTemplate.univ.soa.client;
+
+import com.springbootTemplate.univ.soa.exception.DeadlineExceededException;
+import com.springbootTemplate.univ.soa.exception.PersistanceUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Protection des appels vers ms-persistance : un circuit breaker et un bulkhead (sémaphore) par
+ * PersistanceOperation. Quand le circuit est ouvert ou le bulkhead plein, l'appel échoue immédiatement
+ * avec PersistanceUnavailableException (503) au lieu d'immobiliser un thread Tomcat.
+ * Seules les erreurs techniques (I/O, timeouts, 5xx) ouvrent le circuit : un 404 ou un 409 est une
+ * réponse normale de ms-persistance.
+ * Les opérations idempotentes (executeIdempotent) sont en plus réessayées avec un backoff exponentiel
+ * aléatoire, dans la limite d'un RequestBudget : pendant une panne, les retries n'amplifient pas la charge.
+ * Chaque tentative repasse par le circuit breaker : circuit ouvert = plus de retry.
+ */
+@Slf4j
+public class PersistanceResilience implements MeterBinder {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final Map<PersistanceOperation, CircuitBreaker> circuitBreakers = new EnumMap<>(PersistanceOperation.class);
+    private final Map<PersistanceOperation, Bulkhead> bulkheads = new EnumMap<>(PersistanceOperation.class);
+    private final Map<PersistanceOperation, LongAdder> retriesEffectues = new EnumMap<>(PersistanceOperation.class);
+    private final Map<PersistanceOperation, LongAdder> retriesRefuses = new EnumMap<>(PersistanceOperation.class);
+    private final int retryMaxAttempts;
+    private final IntervalFunction retryBackoff;
+    private final RequestBudget retryBudget;
+
+    public PersistanceResilience(CircuitBreakerConfig circuitBreakerConfig, BulkheadConfig bulkheadConfig,
+                                 int retryMaxAttempts, IntervalFunction retryBackoff, RequestBudget retryBudget) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.from(circuitBreakerConfig)
+                .recordException(PersistanceResilience::estErreurTechnique)
+                .build();
+        this.circuitBreakerRegistry = CircuitBreakerRegistry.of(config);
+        this.bulkheadRegistry = BulkheadRegistry.of(bulkheadConfig);
+        this.retryMaxAttempts = retryMaxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.retryBudget = retryBudget;
+
+        for (PersistanceOperation operation : PersistanceOperation.values()) {
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(operation.nom());
+            circuitBreaker.getEventPublisher().onStateTransition(event ->
+                    log.warn("⚡ Circuit {} : {}", event.getCircuitBreakerName(), event.getStateTransition()));
+            circuitBreakers.put(operation, circuitBreaker);
+            bulkheads.put(operation, bulkheadRegistry.bulkhead(operation.nom()));
+            retriesEffectues.put(operation, new LongAdder());
+            retriesRefuses.put(operation, new LongAdder());
+        }
+    }
+
+    public <T> T execute(PersistanceOperation operation, Supplier<T> call) {
+        Supplier<T> protege = Bulkhead.decorateSupplier(bulkheads.get(operation),
+                CircuitBreaker.decorateSupplier(circuitBreakers.get(operation), call));
+        try {
+            return protege.get();
+        } catch (CallNotPermittedException e) {
+            throw new PersistanceUnavailableException(
+                    "ms-persistance indisponible (circuit ouvert : " + operation.nom() + ")", e);
+        } catch (BulkheadFullException e) {
+            throw new PersistanceUnavailableException(
+                    "ms-persistance saturé (trop d'appels simultanés : " + operation.nom() + ")", e);
+        } catch (ResourceAccessException e) {
+            if (RequestDeadline.isSet() && RequestDeadline.isExpired()) {
+                throw new DeadlineExceededException("Délai de la requête dépassé pendant l'appel " + operation.nom());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Comme execute, avec retries sur erreur technique : réservé aux appels sans effet de bord (GET, validation de token)
+     */
+    public <T> T executeIdempotent(PersistanceOperation operation, Supplier<T> call) {
+        return retry(operation, () -> execute(operation, call));
+    }
+
+    /**
+     * Retries seuls autour d'une tentative déjà protégée par l'appelant (par exemple un appel avec hedging
+     * dont chaque branche passe par execute) : les retries restent à l'extérieur du hedging et une
+     * tentative ne multiplie pas les appels de ses branches.
+     */
+    public <T> T retry(PersistanceOperation operation, Supplier<T> tentativeProtegee) {
+        retryBudget.deposit();
+        for (int tentative = 1; ; tentative++) {
+            try {
+                return tentativeProtegee.get();
+            } catch (RuntimeException e) {
+                if (tentative >= retryMaxAttempts || !estErreurTechnique(e)) {
+                    throw e;
+                }
+                if (!retryBudget.tryAcquire()) {
+                    retriesRefuses.get(operation).increment();
+                    log.debug("⚠️ Budget de retries épuisé ({}), pas de nouvelle tentative", operation.nom());
+                    throw e;
+                }
+                long backoff = retryBackoff.apply(tentative);
+                if (backoff >= RequestDeadline.remainingMillis()) {
+                    throw e;
+                }
+                retriesEffectues.get(operation).increment();
+                log.debug("🔁 Nouvelle tentative {} vers ms-persistance ({}): {}", tentative + 1, operation.nom(), e.getMessage());
+                attendre(backoff, e);
+            }
+        }
+    }
+
+    public void run(PersistanceOperation operation, Runnable call) {
+        execute(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public long retryBudgetRejectedCount(PersistanceOperation operation) {
+        return retriesRefuses.get(operation).sum();
+    }
+
+    public CircuitBreaker.State state(PersistanceOperation operation) {
+        return circuitBreakers.get(operation).getState();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(registry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(registry);
+        for (PersistanceOperation operation : PersistanceOperation.values()) {
+            FunctionCounter.builder("persistance.retry.calls", retriesEffectues.get(operation), LongAdder::sum)
+                    .tag("operation", operation.nom())
+                    .description("Nouvelles tentatives envoyées à ms-persistance")
+                    .register(registry);
+            FunctionCounter.builder("persistance.retry.budget.exhausted", retriesRefuses.get(operation), LongAdder::sum)
+                    .tag("operation", operation.nom())
+                    .description("Nouvelles tentatives abandonnées faute de budget")
+                    .register(registry);
+        }
+        circuitBreakers.values().forEach(circuitBreaker ->
+                circuitBreaker.getEventPublisher().onStateTransition(event -> registry.counter(
+                        "persistance.circuitbreaker.transitions",
+                        "name", event.getCircuitBreakerName(),
+                        "from", event.getStateTransition().getFromState().name(),
+                        "to", event.getStateTransition().getToState().name()
+                ).increment()));
+    }
+
+    private static void attendre(long millis, RuntimeException erreur) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw erreur;
+        }
+    }
+
+    /**
+     * Une tentative annulée (hedging perdant, interruption) ou coupée par l'échéance de la requête
+     * n'est pas une panne de ms-persistance
+     */
+    static boolean estErreurTechnique(Throwable e) {
+        if (Thread.currentThread().isInterrupted() || (RequestDeadline.isSet() && RequestDeadline.isExpired())) {
+            return false;
+        }
+        return e instanceof ResourceAccessException || e instanceof HttpServerErrorException;
+    }
+}
@@ -0,0 +1,44 @@
+package com.springbootTemplate.univ.soa.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget de requêtes supplémentaires (hedging, retries) proportionnel au trafic normal.
+ * Chaque requête normale dépose "ratio" jeton ; une requête supplémentaire en consomme un.
+ * Le solde est plafonné à "burst" jetons : quand ms-persistance ralentit pour tout le monde,
+ * le budget s'épuise et on n'amplifie pas la charge.
+ */
+public class RequestBudget {
+
+    // Jetons stockés en millièmes pour rester sur un AtomicLong
+    private static final long UNITE = 1000;
+
+    private final long depotParRequete;
+    private final long plafond;
+    private final AtomicLong solde;
+
+    public RequestBudget(double ratio, int burst) {
+        this.depotParRequete = Math.round(ratio * UNITE);
+        this.plafond = burst * UNITE;
+        this.solde = new AtomicLong(plafond);
+    }
+
+    public void deposit() {
+        solde.accumulateAndGet(depotParRequete, (courant, depot) -> Math.min(plafond, courant + depot));
+    }
+
+    public boolean tryAcquire() {
+        long courant;
+        do {
+            courant = solde.get();
+            if (courant < UNITE) {
+                return false;
+            }
+        } while (!solde.compareAndSet(courant, courant - UNITE));
+        return true;
+    }
+
+    public double available() {
+        return (double) solde.get() / UNITE;
+    }
+}
@@ -0,0 +1,86 @@
+package com.springbootTemplate.univ.soa.client;
+
+import com.springbootTemplate.univ.soa.exception.DeadlineExceededException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Échéance de la requête HTTP en cours, posée à l'entrée par RequestDeadlineFilter.
+ * Elle est portée par le thread (ThreadLocal) jusqu'à PersistanceClient : chaque appel vers ms-persistance
+ * reçoit le temps restant comme timeout et dans l'en-tête HEADER. Les tâches lancées sur un autre thread
+ * (hedging, lectures groupées) doivent passer par propagate().
+ */
+public final class RequestDeadline {
+
+    /**
+     * Temps restant en millisecondes (relatif, pour ne pas dépendre de l'horloge des autres machines)
+     */
+    public static final String HEADER = "X-Request-Deadline-Ms";
+
+    private static final ThreadLocal<Long> ECHEANCE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(long budgetMs) {
+        ECHEANCE.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs));
+    }
+
+    public static void clear() {
+        ECHEANCE.remove();
+    }
+
+    public static boolean isSet() {
+        return ECHEANCE.get() != null;
+    }
+
+    /**
+     * Temps restant en millisecondes, Long.MAX_VALUE si aucune échéance n'est posée
+     */
+    public static long remainingMillis() {
+        Long echeance = ECHEANCE.get();
+        if (echeance == null) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(echeance - System.nanoTime());
+    }
+
+    public static boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+
+    /**
+     * Vérifier qu'il reste du temps avant d'entamer une étape coûteuse ; renvoie le temps restant
+     */
+    public static long check(String etape) {
+        long restant = remainingMillis();
+        if (restant <= 0) {
+            throw new DeadlineExceededException("Délai de la requête dépassé avant : " + etape);
+        }
+        return restant;
+    }
+
+    /**
+     * Exécuter call sur un autre thread avec l'échéance du thread appelant
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> call) {
+        Long echeance = ECHEANCE.get();
+        if (echeance == null) {
+            return call;
+        }
+        return () -> {
+            Long precedente = ECHEANCE.get();
+            ECHEANCE.set(echeance);
+            try {
+                return call.get();
+            } finally {
+                if (precedente == null) {
+                    ECHEANCE.remove();
+                } else {
+                    ECHEANCE.set(precedente);
+                }
+            }
+        };
+    }
+}
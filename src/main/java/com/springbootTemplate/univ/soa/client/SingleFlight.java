@@ -0,0 +1,97 @@
+package com.springbootTemplate.univ.soa.client;
+
+import com.springbootTemplate.univ.soa.exception.DeadlineExceededException;
+import com.springbootTemplate.univ.soa.exception.PersistanceUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Regroupement des appels concurrents identiques ("single-flight").
+ * Le premier appelant d'une clé (leader) exécute l'appel ; les appelants qui arrivent pendant
+ * qu'il est en cours attendent et partagent son résultat ou son exception.
+ * Rien n'est mis en cache : la clé est libérée dès que l'appel du leader se termine.
+ * Un suiveur n'attend pas indéfiniment un leader bloqué : au-delà de attenteMaxMs (PersistanceUnavailableException)
+ * ou de sa propre échéance (DeadlineExceededException), il abandonne sans interrompre l'appel du leader.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> enCours = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder regroupes = new LongAdder();
+
+    public V execute(K key, long attenteMaxMs, Supplier<V> call) {
+        CompletableFuture<V> appel = new CompletableFuture<>();
+        CompletableFuture<V> existant = enCours.putIfAbsent(key, appel);
+
+        if (existant != null) {
+            regroupes.increment();
+            return attendre(existant, attenteMaxMs);
+        }
+
+        leaders.increment();
+        try {
+            V resultat = call.get();
+            appel.complete(resultat);
+            return resultat;
+        } catch (RuntimeException | Error e) {
+            appel.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCours.remove(key, appel);
+        }
+    }
+
+    public long leaderCount() {
+        return leaders.sum();
+    }
+
+    public long coalescedCount() {
+        return regroupes.sum();
+    }
+
+    public void bindTo(MeterRegistry registry, String operation) {
+        FunctionCounter.builder("persistance.singleflight.calls", leaders, LongAdder::sum)
+                .tag("operation", operation)
+                .tag("role", "leader")
+                .description("Appels réellement envoyés à ms-persistance")
+                .register(registry);
+        FunctionCounter.builder("persistance.singleflight.calls", regroupes, LongAdder::sum)
+                .tag("operation", operation)
+                .tag("role", "coalesced")
+                .description("Appels regroupés sur un appel déjà en cours")
+                .register(registry);
+    }
+
+    private static <V> V attendre(CompletableFuture<V> appel, long attenteMaxMs) {
+        long restant = RequestDeadline.remainingMillis();
+        try {
+            return appel.get(Math.max(0, Math.min(attenteMaxMs, restant)), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (restant <= attenteMaxMs) {
+                throw new DeadlineExceededException("Délai de la requête dépassé en attendant l'appel en cours");
+            }
+            throw new PersistanceUnavailableException("Attente de l'appel en cours dépassée (" + attenteMaxMs + " ms)", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistanceUnavailableException("Attente de l'appel en cours interrompue", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.springbootTemplate.univ.soa.client;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RestTemplate annonce tous les formats lisibles sans préférence. Quand Smile en fait partie,
+ * on le place en tête et on abaisse la qualité des autres (q=0.9) : ms-persistance répond en Smile
+ * s'il sait le produire, en JSON sinon.
+ */
+public class SmilePreferenceInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        List<MediaType> accept = request.getHeaders().getAccept();
+        if (accept.stream().anyMatch(SmileResponseConverter.APPLICATION_SMILE::equalsTypeAndSubtype)) {
+            List<MediaType> prefere = new ArrayList<>(accept.size());
+            prefere.add(SmileResponseConverter.APPLICATION_SMILE);
+            for (MediaType mediaType : accept) {
+                MediaType secondaire = new MediaType(mediaType.getType(), mediaType.getSubtype(), 0.9);
+                if (!mediaType.equalsTypeAndSubtype(SmileResponseConverter.APPLICATION_SMILE) && !prefere.contains(secondaire)) {
+                    prefere.add(secondaire);
+                }
+            }
+            request.getHeaders().setAccept(prefere);
+        }
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,31 @@
+package com.springbootTemplate.univ.soa.client;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Lecture des réponses Smile (JSON binaire) de ms-persistance.
+ * En écriture, le convertisseur se déclare incapable : les corps de requête restent en JSON,
+ * seul format dont on sait que ms-persistance l'accepte.
+ */
+public class SmileResponseConverter extends MappingJackson2SmileHttpMessageConverter {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    public SmileResponseConverter() {
+        super(Jackson2ObjectMapperBuilder.smile().build());
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+}
@@ -0,0 +1,64 @@
+package com.springbootTemplate.univ.soa.config;
+
+import com.springbootTemplate.univ.soa.cache.UtilisateurProfileCache;
+import com.springbootTemplate.univ.soa.cache.VerifiedTokenCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Caches locaux en mémoire.
+ * Les statistiques (hit / miss / eviction) sont exposées via Actuator sous cache.*{cache=...}.
+ */
+@Slf4j
+@Configuration
+public class CacheConfig {
+
+    @Value("${utilisateur.cache.max-size:10000}")
+    private long profileCacheMaxSize;
+
+    @Value("${utilisateur.cache.ttl-seconds:60}")
+    private long profileCacheTtlSeconds;
+
+    @Value("${jwt.verified-cache.max-bytes:8388608}")
+    private long verifiedTokenCacheMaxBytes;
+
+    @Bean
+    public UtilisateurProfileCache utilisateurProfileCache(ObjectProvider<MeterRegistry> meterRegistry) {
+        UtilisateurProfileCache cache = new UtilisateurProfileCache(
+                profileCacheMaxSize, Duration.ofSeconds(profileCacheTtlSeconds));
+
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, cache.parIdCache(), "utilisateurs.parId");
+            CaffeineCacheMetrics.monitor(registry, cache.idParEmailCache(), "utilisateurs.idParEmail");
+        });
+
+        log.info("🗃️ Cache des profils : {} entrées max, TTL {}s", profileCacheMaxSize, profileCacheTtlSeconds);
+        return cache;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "jwt.verified-cache.enabled", havingValue = "true")
+    public VerifiedTokenCache verifiedTokenCache(ObjectProvider<MeterRegistry> meterRegistry) {
+        VerifiedTokenCache cache = new VerifiedTokenCache(verifiedTokenCacheMaxBytes);
+
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, cache.cache(), "jwt.verified");
+            Gauge.builder("jwt.verified.cache.bytes", cache, VerifiedTokenCache::weightedSize)
+                    .description("Octets estimés occupés par le cache des JWT vérifiés")
+                    .baseUnit("bytes")
+                    .register(registry);
+        });
+
+        log.info("🗃️ Cache des JWT vérifiés : {} octets max", verifiedTokenCacheMaxBytes);
+        return cache;
+    }
+}
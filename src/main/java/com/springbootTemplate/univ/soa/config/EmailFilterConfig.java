@@ -0,0 +1,73 @@
+package com.springbootTemplate.univ.soa.config;
+
+import com.springbootTemplate.univ.soa.cache.RegisteredEmailFilter;
+import com.springbootTemplate.univ.soa.client.PersistanceClient;
+import com.springbootTemplate.univ.soa.dto.UtilisateurResponseDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Filtre de Bloom des emails inscrits (désactivé par défaut).
+ * Reconstruit toutes les utilisateur.email-filter.refresh-ms à partir de la liste complète des utilisateurs.
+ * Un email inscrit sur une autre instance n'est connu qu'à la reconstruction suivante : les réponses négatives
+ * ne sont donc utilisées que si utilisateur.email-filter.complete (cette instance voit toutes les inscriptions)
+ * et si la dernière reconstruction date de moins de utilisateur.email-filter.max-age-ms.
+ * Désactivé, le filtre n'est jamais prêt et laisse passer toutes les recherches.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class EmailFilterConfig {
+
+    private final ObjectProvider<PersistanceClient> persistanceClient;
+    private final ObjectProvider<RegisteredEmailFilter> emailFilter;
+
+    @Value("${utilisateur.email-filter.enabled:false}")
+    private boolean enabled;
+
+    @Value("${utilisateur.email-filter.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    @Value("${utilisateur.email-filter.fpp:0.01}")
+    private double fpp;
+
+    @Value("${utilisateur.email-filter.complete:false}")
+    private boolean complete;
+
+    @Value("${utilisateur.email-filter.max-age-ms:1200000}")
+    private long maxAgeMs;
+
+    @Bean
+    public RegisteredEmailFilter registeredEmailFilter() {
+        RegisteredEmailFilter filter = new RegisteredEmailFilter(expectedInsertions, fpp, complete, maxAgeMs);
+        if (enabled && !complete) {
+            log.info("🧮 Filtre des emails non complet : les réponses négatives ne remplacent pas la recherche");
+        }
+        if (enabled) {
+            log.info("🧮 Filtre des emails inscrits : {} emails attendus, fpp visé {}, {} Ko",
+                    expectedInsertions, fpp, filter.sizeInBytes() / 1024);
+        }
+        return filter;
+    }
+
+    @Scheduled(fixedDelayString = "${utilisateur.email-filter.refresh-ms:600000}",
+            initialDelayString = "${utilisateur.email-filter.initial-delay-ms:5000}")
+    public void rebuildEmailFilter() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            emailFilter.getObject().rebuild(() -> persistanceClient.getObject().getAllUtilisateurs().stream()
+                    .map(UtilisateurResponseDto::getEmail)
+                    .toList());
+        } catch (RuntimeException e) {
+            // Filtre précédent conservé ; nouvelle tentative à la prochaine échéance
+            log.warn("⚠️ Reconstruction du filtre des emails impossible: {}", e.getMessage());
+        }
+    }
+}
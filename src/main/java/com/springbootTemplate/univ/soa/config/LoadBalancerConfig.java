@@ -0,0 +1,102 @@
+package com.springbootTemplate.univ.soa.config;
+
+import com.springbootTemplate.univ.soa.client.PersistanceLoadBalancer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Répartition client des appels vers ms-persistance (désactivée par défaut).
+ * Réplicas : liste fixe (persistance.lb.endpoints) ou toutes les adresses d'un nom DNS, typiquement un
+ * service Kubernetes headless (persistance.lb.dns-name, par défaut l'hôte de persistance.service.url),
+ * résolues à nouveau toutes les persistance.lb.refresh-ms. Le cache DNS de la JVM (30 s par défaut)
+ * s'applique en plus. Le mode DNS appelle les réplicas par leur adresse IP : il est refusé en https,
+ * où la vérification du nom d'hôte TLS échouerait.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+@EnableScheduling
+public class LoadBalancerConfig {
+
+    private final ObjectProvider<PersistanceLoadBalancer> loadBalancer;
+
+    @Value("${persistance.service.url}")
+    private String persistanceServiceUrl;
+
+    @Value("${persistance.lb.endpoints:}")
+    private String endpoints;
+
+    @Value("${persistance.lb.dns-name:}")
+    private String dnsName;
+
+    @Value("${persistance.lb.ejection.consecutive-failures:5}")
+    private int consecutiveFailures;
+
+    @Value("${persistance.lb.ejection.duration-ms:30000}")
+    private long ejectionDurationMs;
+
+    @Bean
+    @ConditionalOnProperty(name = "persistance.lb.enabled", havingValue = "true")
+    public PersistanceLoadBalancer persistanceLoadBalancer() {
+        return new PersistanceLoadBalancer(source(), consecutiveFailures, ejectionDurationMs);
+    }
+
+    @Scheduled(fixedDelayString = "${persistance.lb.refresh-ms:30000}",
+            initialDelayString = "${persistance.lb.refresh-ms:30000}")
+    public void refreshEndpoints() {
+        loadBalancer.ifAvailable(PersistanceLoadBalancer::refresh);
+    }
+
+    private Supplier<List<URI>> source() {
+        if (StringUtils.hasText(endpoints)) {
+            List<URI> fixes = Arrays.stream(StringUtils.commaDelimitedListToStringArray(endpoints))
+                    .map(String::trim)
+                    .filter(StringUtils::hasText)
+                    .map(URI::create)
+                    .toList();
+            log.info("🌐 Répartition ms-persistance sur {} réplicas fixes", fixes.size());
+            return () -> fixes;
+        }
+
+        URI base = URI.create(persistanceServiceUrl);
+        if ("https".equalsIgnoreCase(base.getScheme())) {
+            throw new IllegalStateException("persistance.lb : le mode DNS remplace l'hôte par une adresse IP, "
+                    + "incompatible avec https (vérification du nom d'hôte TLS) ; utiliser persistance.lb.endpoints");
+        }
+        String host = StringUtils.hasText(dnsName) ? dnsName : base.getHost();
+        log.info("🌐 Répartition ms-persistance sur les adresses DNS de {}", host);
+        return () -> resoudre(base, host);
+    }
+
+    private static List<URI> resoudre(URI base, String host) {
+        try {
+            List<URI> uris = new ArrayList<>();
+            for (InetAddress adresse : InetAddress.getAllByName(host)) {
+                URI uri = new URI(base.getScheme(), null, adresse.getHostAddress(), base.getPort(), null, null, null);
+                if (!uris.contains(uri)) {
+                    uris.add(uri);
+                }
+            }
+            return uris;
+        } catch (UnknownHostException | URISyntaxException e) {
+            throw new IllegalStateException("Résolution impossible de " + host, e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.springbootTemplate.univ.soa.config;
+
+import com.springbootTemplate.univ.soa.client.RequestDeadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Pose l'échéance de chaque requête /api/utilisateurs dès l'entrée (avant la sécurité).
+ * Budget par route (login, batch, défaut), réduit si l'appelant transmet un budget plus court
+ * dans l'en-tête RequestDeadline.HEADER.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private static final String API_PATH = "/api/utilisateurs";
+
+    @Value("${utilisateur.deadline.enabled:true}")
+    private boolean enabled;
+
+    @Value("${utilisateur.deadline.default-ms:5000}")
+    private long defaultMs;
+
+    @Value("${utilisateur.deadline.login-ms:3000}")
+    private long loginMs;
+
+    @Value("${utilisateur.deadline.batch-ms:8000}")
+    private long batchMs;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith(API_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestDeadline.start(budget(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    private long budget(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        long budget = path.endsWith("/login") ? loginMs : path.endsWith("/batch") ? batchMs : defaultMs;
+
+        String entrant = request.getHeader(RequestDeadline.HEADER);
+        if (entrant != null) {
+            try {
+                long budgetAppelant = Long.parseLong(entrant.trim());
+                if (budgetAppelant > 0) {
+                    budget = Math.min(budget, budgetAppelant);
+                }
+            } catch (NumberFormatException e) {
+                log.debug("⚠️ En-tête {} invalide ignoré: {}", RequestDeadline.HEADER, entrant);
+            }
+        }
+        return budget;
+    }
+}
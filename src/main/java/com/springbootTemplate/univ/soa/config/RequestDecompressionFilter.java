@@ -0,0 +1,205 @@
+package com.springbootTemplate.univ.soa.config;
+
+import com.springbootTemplate.univ.soa.exception.RequestTooLargeException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Décompression à la volée des corps de requête envoyés avec Content-Encoding: gzip ou deflate.
+ * Le corps n'est jamais chargé en entier ; sa taille décompressée est bornée (protection contre
+ * les "zip bombs") : au-delà, RequestTooLargeException (413). La compression des réponses est
+ * assurée par Tomcat (server.compression.*).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    @Value("${utilisateur.request-decompression.max-bytes:10485760}")
+    private long maxBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(HttpHeaders.CONTENT_ENCODING) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING).trim().toLowerCase(Locale.ROOT);
+        InputStream decompresse;
+        try {
+            decompresse = switch (encoding) {
+                case "gzip", "x-gzip" -> new GZIPInputStream(request.getInputStream());
+                case "deflate" -> new InflaterInputStream(request.getInputStream());
+                case "identity" -> request.getInputStream();
+                default -> null;
+            };
+        } catch (ZipException e) {
+            // En-tête gzip absent : corps annoncé compressé mais envoyé en clair
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Corps de requête non conforme à Content-Encoding: " + encoding);
+            return;
+        }
+        if (decompresse == null) {
+            response.sendError(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value(), "Content-Encoding non supporté: " + encoding);
+            return;
+        }
+        try {
+            filterChain.doFilter(new DecompressedRequest(request, new LimitedInputStream(decompresse, maxBytes)), response);
+        } catch (RequestTooLargeException e) {
+            // Corps lu hors d'un contrôleur (GlobalExceptionHandler n'est pas passé par là)
+            if (response.isCommitted()) {
+                throw e;
+            }
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), e.getMessage());
+        }
+    }
+
+    private static final class DecompressedRequest extends HttpServletRequestWrapper {
+
+        private final ServletInputStream body;
+
+        private DecompressedRequest(HttpServletRequest request, InputStream decompresse) {
+            super(request);
+            this.body = new ServletInputStream() {
+                private boolean termine;
+
+                @Override
+                public int read() throws IOException {
+                    int b = decompresse.read();
+                    termine = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = decompresse.read(b, off, len);
+                    termine = n < 0;
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return termine;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Lecture bloquante : les données décompressées sont toujours disponibles, le listener est
+                // notifié immédiatement puis à la fin du corps
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        readListener.onDataAvailable();
+                        if (termine) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return body;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(body, charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return estEnteteSupprimee(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return estEnteteSupprimee(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        private static boolean estEnteteSupprimee(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long max;
+        private long lus;
+
+        private LimitedInputStream(InputStream in, long max) {
+            super(in);
+            this.max = max;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                compter(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                compter(n);
+            }
+            return n;
+        }
+
+        private void compter(int n) {
+            lus += n;
+            if (lus > max) {
+                throw new RequestTooLargeException("Corps de requête décompressé trop volumineux (max " + max + " octets)");
+            }
+        }
+    }
+}
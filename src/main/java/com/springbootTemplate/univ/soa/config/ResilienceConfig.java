@@ -0,0 +1,114 @@
+package com.springbootTemplate.univ.soa.config;
+
+import com.springbootTemplate.univ.soa.client.PersistanceHedging;
+import com.springbootTemplate.univ.soa.client.PersistanceResilience;
+import com.springbootTemplate.univ.soa.client.RequestBudget;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Circuit breakers, bulkheads et retries des appels vers ms-persistance (un par PersistanceOperation).
+ * L'état des circuits est exposé via Actuator (resilience4j.circuitbreaker.*, persistance.circuitbreaker.transitions).
+ * Le hedging des lectures (persistance.hedging.*) est désactivé par défaut.
+ */
+@Configuration
+public class ResilienceConfig {
+
+    @Value("${persistance.resilience.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${persistance.resilience.slow-call-duration-ms:2000}")
+    private long slowCallDurationMs;
+
+    @Value("${persistance.resilience.slow-call-rate-threshold:80}")
+    private float slowCallRateThreshold;
+
+    @Value("${persistance.resilience.sliding-window-size:20}")
+    private int slidingWindowSize;
+
+    @Value("${persistance.resilience.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${persistance.resilience.wait-in-open-ms:10000}")
+    private long waitInOpenMs;
+
+    @Value("${persistance.resilience.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    @Value("${persistance.resilience.bulkhead.max-concurrent-calls:25}")
+    private int maxConcurrentCalls;
+
+    @Value("${persistance.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${persistance.retry.initial-backoff-ms:50}")
+    private long retryInitialBackoffMs;
+
+    @Value("${persistance.retry.multiplier:2.0}")
+    private double retryMultiplier;
+
+    @Value("${persistance.retry.jitter:0.5}")
+    private double retryJitter;
+
+    @Value("${persistance.retry.budget-ratio:0.1}")
+    private double retryBudgetRatio;
+
+    @Value("${persistance.retry.budget-burst:10}")
+    private int retryBudgetBurst;
+
+    @Value("${persistance.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${persistance.hedging.percentile:95}")
+    private double hedgingPercentile;
+
+    @Value("${persistance.hedging.min-delay-ms:10}")
+    private long hedgingMinDelayMs;
+
+    @Value("${persistance.hedging.max-delay-ms:500}")
+    private long hedgingMaxDelayMs;
+
+    @Value("${persistance.hedging.budget-ratio:0.1}")
+    private double hedgingBudgetRatio;
+
+    @Value("${persistance.hedging.budget-burst:20}")
+    private int hedgingBudgetBurst;
+
+    @Bean
+    public PersistanceResilience persistanceResilience() {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationMs))
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(Duration.ofMillis(waitInOpenMs))
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build();
+
+        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+
+        IntervalFunction retryBackoff = IntervalFunction.ofExponentialRandomBackoff(
+                Duration.ofMillis(retryInitialBackoffMs), retryMultiplier, retryJitter);
+
+        return new PersistanceResilience(circuitBreakerConfig, bulkheadConfig, retryMaxAttempts, retryBackoff,
+                new RequestBudget(retryBudgetRatio, retryBudgetBurst));
+    }
+
+    // Arrêt explicite du pool des secondes tentatives à la fermeture du contexte
+    @Bean(destroyMethod = "shutdown")
+    public PersistanceHedging persistanceHedging() {
+        return new PersistanceHedging(hedgingEnabled, hedgingPercentile, hedgingMinDelayMs, hedgingMaxDelayMs,
+                new RequestBudget(hedgingBudgetRatio, hedgingBudgetBurst));
+    }
+}
@@ -1,14 +1,216 @@
 package com.springbootTemplate.univ.soa.config;
 
+import com.springbootTemplate.univ.soa.client.CompressionInterceptor;
+import com.springbootTemplate.univ.soa.client.DeadlineInterceptor;
+import com.springbootTemplate.univ.soa.client.LoadBalancingInterceptor;
+import com.springbootTemplate.univ.soa.client.PersistanceLoadBalancer;
+import com.springbootTemplate.univ.soa.client.SmilePreferenceInterceptor;
+import com.springbootTemplate.univ.soa.client.SmileResponseConverter;
+import com.springbootTemplate.univ.soa.client.RequestDeadline;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Transport HTTP vers ms-persistance.
+ * Par défaut : pool de connexions Apache HttpClient 5 (keep-alive, éviction des connexions inactives,
+ * timeouts de connexion / lecture / attente d'une connexion du pool).
+ * Si persistance.http.http2-enabled=true : client HTTP/2 du JDK (multiplexage, pool géré par le JDK).
+ * Réponses : Smile (JSON binaire) demandé en priorité, JSON sinon ; les corps de requête restent en JSON.
+ * Compression : réponses gzip/deflate décompressées à la volée (Apache HttpClient, ou CompressionInterceptor
+ * en HTTP/2) ; compression gzip des corps de requête au-delà d'un seuil si activée.
+ * Quand une échéance de requête est posée (RequestDeadline), l'attente d'une connexion et de la réponse
+ * sont bornées par le temps restant (pool HTTP/1.1 uniquement ; en HTTP/2 seul l'abandon avant envoi s'applique).
+ */
+@Slf4j
 @Configuration
 public class RestTemplateConfig {
 
+    @Value("${persistance.http.max-total:100}")
+    private int maxTotal;
+
+    @Value("${persistance.http.max-per-route:50}")
+    private int maxPerRoute;
+
+    @Value("${persistance.http.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${persistance.http.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    @Value("${persistance.http.pool-acquire-timeout-ms:1000}")
+    private long poolAcquireTimeoutMs;
+
+    @Value("${persistance.http.keep-alive-ms:60000}")
+    private long keepAliveMs;
+
+    @Value("${persistance.http.idle-eviction-ms:30000}")
+    private long idleEvictionMs;
+
+    @Value("${persistance.http.validate-after-inactivity-ms:2000}")
+    private long validateAfterInactivityMs;
+
+    @Value("${persistance.http.http2-enabled:false}")
+    private boolean http2Enabled;
+
+    @Value("${persistance.http.smile-enabled:true}")
+    private boolean smileEnabled;
+
+    @Value("${persistance.http.request-compression-enabled:false}")
+    private boolean requestCompressionEnabled;
+
+    @Value("${persistance.http.compression-min-size:2048}")
+    private int compressionMinSize;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager persistanceConnectionManager(ObjectProvider<MeterRegistry> meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivityMs))
+                        .build())
+                .build();
+
+        // En HTTP/2 le pool Apache n'est pas utilisé : ses jauges resteraient à zéro
+        if (!http2Enabled) {
+            meterRegistry.ifAvailable(registry -> bindPoolMetrics(registry, connectionManager));
+        }
+        return connectionManager;
+    }
+
+    /**
+     * Client HTTP/2 du JDK (persistance.http.http2-enabled=true), fermé avec le contexte
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "persistance.http.http2-enabled", havingValue = "true")
+    public HttpClient persistanceHttp2Client() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient persistanceHttpClient(PoolingHttpClientConnectionManager persistanceConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(persistanceConnectionManager)
+                .setDefaultRequestConfig(requestConfig(poolAcquireTimeoutMs, readTimeoutMs))
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAliveMs))
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictionMs))
+                .evictExpiredConnections()
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient persistanceHttpClient,
+                                     ObjectProvider<HttpClient> persistanceHttp2Client,
+                                     ObjectProvider<PersistanceLoadBalancer> loadBalancer) {
+        RestTemplate restTemplate = new RestTemplate(
+                requestFactory(persistanceHttpClient, persistanceHttp2Client.getIfAvailable()));
+        if (smileEnabled) {
+            restTemplate.getMessageConverters().add(0, new SmileResponseConverter());
+            restTemplate.getInterceptors().add(new SmilePreferenceInterceptor());
+        }
+        if (requestCompressionEnabled || http2Enabled) {
+            restTemplate.getInterceptors().add(
+                    new CompressionInterceptor(requestCompressionEnabled, compressionMinSize, http2Enabled));
+        }
+        restTemplate.getInterceptors().add(new DeadlineInterceptor());
+        loadBalancer.ifAvailable(lb -> restTemplate.getInterceptors().add(new LoadBalancingInterceptor(lb)));
+        return restTemplate;
+    }
+
+    /**
+     * Même transport, intercepteurs et convertisseurs que restTemplate ; utilisé pour les lectures
+     * où un 404 est un résultat attendu (exchange sans exception)
+     */
+    @Bean
+    public RestClient persistanceRestClient(RestTemplate restTemplate) {
+        List<MediaType> accept = smileEnabled
+                ? List.of(SmileResponseConverter.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+                : List.of(MediaType.APPLICATION_JSON);
+        return RestClient.builder(restTemplate)
+                .defaultHeaders(headers -> headers.setAccept(accept))
+                .build();
+    }
+
+    private static RequestConfig requestConfig(long connectionRequestTimeoutMs, long responseTimeoutMs) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                .build();
+    }
+
+    private ClientHttpRequestFactory requestFactory(CloseableHttpClient persistanceHttpClient, HttpClient http2Client) {
+        if (http2Client != null) {
+            log.info("🌐 Transport ms-persistance : client HTTP/2 du JDK");
+            // Timeout par requête borné par le temps restant de l'échéance (fabrique légère, client partagé)
+            return (uri, method) -> {
+                JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(http2Client);
+                long timeout = RequestDeadline.isSet()
+                        ? Math.min(Math.max(1, RequestDeadline.remainingMillis()), readTimeoutMs)
+                        : readTimeoutMs;
+                factory.setReadTimeout(Duration.ofMillis(timeout));
+                return factory.createRequest(uri, method);
+            };
+        }
+
+        log.info("🌐 Transport ms-persistance : pool HTTP/1.1 (max {} connexions, {} par route)", maxTotal, maxPerRoute);
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(persistanceHttpClient);
+        factory.setHttpContextFactory((method, uri) -> {
+            if (!RequestDeadline.isSet()) {
+                return null;
+            }
+            long restant = Math.max(1, RequestDeadline.remainingMillis());
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(requestConfig(Math.min(restant, poolAcquireTimeoutMs), Math.min(restant, readTimeoutMs)));
+            return context;
+        });
+        return factory;
+    }
+
+    private void bindPoolMetrics(MeterRegistry registry, PoolingHttpClientConnectionManager connectionManager) {
+        registerPoolGauge(registry, connectionManager, "leased", PoolStats::getLeased);
+        registerPoolGauge(registry, connectionManager, "pending", PoolStats::getPending);
+        registerPoolGauge(registry, connectionManager, "available", PoolStats::getAvailable);
+        registerPoolGauge(registry, connectionManager, "max", PoolStats::getMax);
+    }
+
+    private void registerPoolGauge(MeterRegistry registry, PoolingHttpClientConnectionManager connectionManager,
+                                   String state, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder("persistance.http.pool.connections", connectionManager,
+                        manager -> value.applyAsDouble(manager.getTotalStats()))
+                .tag("state", state)
+                .description("Connexions du pool HTTP vers ms-persistance")
+                .register(registry);
     }
-}
\ No newline at end of file
+}
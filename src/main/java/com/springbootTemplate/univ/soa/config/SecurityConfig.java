@@ -41,9 +41,12 @@ public class SecurityConfig {
                         .requestMatchers(
                                 "/api/utilisateurs/register",
                                 "/api/utilisateurs/login",
+                                "/api/utilisateurs/refresh",
+                                "/api/utilisateurs/logout",
                                 "/api/utilisateurs/forgot-password",
                                 "/api/utilisateurs/reset-password",
                                 "/api/utilisateurs/health",
+                                "/.well-known/jwks.json",
                                 "/actuator/**",
                                 "/swagger-ui/**",
                                 "/swagger-ui.html",
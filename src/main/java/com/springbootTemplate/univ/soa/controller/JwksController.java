@@ -0,0 +1,36 @@
+package com.springbootTemplate.univ.soa.controller;
+
+import com.springbootTemplate.univ.soa.security.JwtUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "JWKS", description = "Clés publiques de vérification des tokens JWT")
+public class JwksController {
+
+    private final JwtUtil jwtUtil;
+
+    @Value("${jwt.jwks.max-age-seconds:3600}")
+    private long maxAgeSeconds;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Clés publiques JWT (JWKS)",
+            description = "Permet à la passerelle et aux autres services de vérifier les tokens ES256 localement")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .body(Map.of("keys", jwtUtil.publicJwks()));
+    }
+}
@@ -1,6 +1,9 @@
 package com.springbootTemplate.univ.soa.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.springbootTemplate.univ.soa.dto.*;
+import com.springbootTemplate.univ.soa.service.UtilisateurEtag;
+import com.springbootTemplate.univ.soa.service.UtilisateurMergePatch;
 import com.springbootTemplate.univ.soa.service.UtilisateurService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -10,12 +13,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.ByteArrayOutputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +37,13 @@ public class UtilisateurController {
 
     private final UtilisateurService utilisateurService;
 
+    // Lectures en pass-through : le JSON de ms-persistance est recopié tel quel, sans passer par Jackson
+    // (mis en mémoire avant envoi : une erreur de ms-persistance donne encore un statut propre).
+    // Pas de lecture conditionnelle dans ce mode : l'ETag est calculé sur le profil décodé (celui que vérifie
+    // If-Match en écriture), donc ni ETag ni 304, If-None-Match est ignoré.
+    @Value("${utilisateur.read.pass-through:false}")
+    private boolean passThrough;
+
     @PostMapping("/register")
     @Operation(summary = "Inscription d'un nouvel utilisateur", description = "Créer un nouveau compte utilisateur")
     @ApiResponses(value = {
@@ -48,15 +63,33 @@ public class UtilisateurController {
             @ApiResponse(responseCode = "200", description = "Connexion réussie"),
             @ApiResponse(responseCode = "401", description = "Identifiants incorrects")
     })
-    public ResponseEntity<Map<String, String>> login(@Valid @RequestBody LoginDto loginDto) {
+    public ResponseEntity<TokenResponseDto> login(@Valid @RequestBody LoginDto loginDto) {
         log.info("POST /api/utilisateurs/login - Connexion: {}", loginDto.getEmail());
-        String token = utilisateurService.login(loginDto);
+        return ResponseEntity.ok(utilisateurService.login(loginDto));
+    }
 
-        Map<String, String> response = new HashMap<>();
-        response.put("token", token);
-        response.put("type", "Bearer");
+    @PostMapping("/refresh")
+    @Operation(summary = "Renouveler les tokens", description = "Échanger un refresh token contre un nouveau token d'accès, sans mot de passe")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tokens renouvelés"),
+            @ApiResponse(responseCode = "401", description = "Refresh token invalide, expiré ou déjà utilisé")
+    })
+    public ResponseEntity<TokenResponseDto> refresh(@Valid @RequestBody RefreshTokenDto dto) {
+        log.info("POST /api/utilisateurs/refresh - Renouvellement");
+        return ResponseEntity.ok(utilisateurService.refresh(dto.getRefreshToken()));
+    }
 
-        return ResponseEntity.ok(response);
+    @PostMapping("/logout")
+    @Operation(summary = "Déconnexion", description = "Révoquer le token d'accès (en-tête Authorization) et le refresh token")
+    @ApiResponse(responseCode = "204", description = "Tokens révoqués")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                       @RequestBody(required = false) RefreshTokenDto dto) {
+        log.info("POST /api/utilisateurs/logout - Déconnexion");
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        utilisateurService.logout(accessToken, dto != null ? dto.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/{id}")
@@ -64,22 +97,47 @@ public class UtilisateurController {
     @Operation(summary = "Récupérer un utilisateur par ID", description = "Obtenir les détails d'un utilisateur")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Utilisateur trouvé"),
+            @ApiResponse(responseCode = "304", description = "Version détenue par le client (If-None-Match)"),
             @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé"),
             @ApiResponse(responseCode = "401", description = "Non authentifié")
     })
-    public ResponseEntity<UtilisateurResponseDto> getUtilisateurById(@PathVariable Long id) {
+    public ResponseEntity<?> getUtilisateurById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /api/utilisateurs/{} - Récupération", id);
-        UtilisateurResponseDto response = utilisateurService.getUtilisateurById(id);
-        return ResponseEntity.ok(response);
+        if (passThrough) {
+            ByteArrayOutputStream corps = new ByteArrayOutputStream();
+            utilisateurService.streamUtilisateurById(id, corps);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(corps.toByteArray());
+        }
+        return avecEtag(utilisateurService.getUtilisateurById(id), ifNoneMatch);
     }
 
     @GetMapping("/email/{email}")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Récupérer un utilisateur par email")
-    public ResponseEntity<UtilisateurResponseDto> getUtilisateurByEmail(@PathVariable String email) {
+    public ResponseEntity<?> getUtilisateurByEmail(
+            @PathVariable String email,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /api/utilisateurs/email/{} - Récupération", email);
-        UtilisateurResponseDto response = utilisateurService.getUtilisateurByEmail(email);
-        return ResponseEntity.ok(response);
+        if (passThrough) {
+            ByteArrayOutputStream corps = new ByteArrayOutputStream();
+            utilisateurService.streamUtilisateurByEmail(email, corps);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(corps.toByteArray());
+        }
+        return avecEtag(utilisateurService.getUtilisateurByEmail(email), ifNoneMatch);
+    }
+
+    /**
+     * Profil avec son ETag ; 304 sans corps si le client détient déjà cette version.
+     * Un profil servi par le cache local ne déclenche aucun appel à ms-persistance, y compris pour un 304.
+     */
+    private ResponseEntity<UtilisateurResponseDto> avecEtag(UtilisateurResponseDto utilisateur, String ifNoneMatch) {
+        String etag = UtilisateurEtag.of(utilisateur);
+        if (UtilisateurEtag.matchesNoneMatch(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(utilisateur);
     }
 
     @GetMapping
@@ -92,15 +150,43 @@ public class UtilisateurController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/batch")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Récupérer plusieurs utilisateurs", description = "Recherche groupée par IDs et/ou emails (100 max chacun)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Résultats partiels, un élément par clé demandée"),
+            @ApiResponse(responseCode = "400", description = "Requête invalide")
+    })
+    public ResponseEntity<List<UtilisateurBatchItemDto>> getUtilisateursBatch(
+            @Valid @RequestBody UtilisateurBatchRequestDto batchDto) {
+        log.info("POST /api/utilisateurs/batch - Recherche groupée");
+        List<UtilisateurBatchItemDto> response = utilisateurService.getUtilisateursBatch(batchDto);
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{id}")
     @SecurityRequirement(name = "bearerAuth")
-    @Operation(summary = "Mettre à jour un utilisateur")
+    @Operation(summary = "Mettre à jour un utilisateur (If-Match optionnel, 412 si la version a changé)")
     public ResponseEntity<UtilisateurResponseDto> updateUtilisateur(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UtilisateurUpdateDto updateDto) {
         log.info("PUT /api/utilisateurs/{} - Mise à jour", id);
-        UtilisateurResponseDto response = utilisateurService.updateUtilisateur(id, updateDto);
-        return ResponseEntity.ok(response);
+        UtilisateurResponseDto response = utilisateurService.updateUtilisateur(id, updateDto, ifMatch);
+        return ResponseEntity.ok().eTag(UtilisateurEtag.of(response)).body(response);
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {UtilisateurMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Mettre à jour partiellement un utilisateur (JSON Merge Patch)",
+            description = "Préférences : tableau pour remplacer, objet {\"id\": true|null} pour ajouter / retirer")
+    public ResponseEntity<UtilisateurResponseDto> patchUtilisateur(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) {
+        log.info("PATCH /api/utilisateurs/{} - Mise à jour partielle", id);
+        UtilisateurResponseDto response = utilisateurService.patchUtilisateur(id, UtilisateurMergePatch.parse(patch), ifMatch);
+        return ResponseEntity.ok().eTag(UtilisateurEtag.of(response)).body(response);
     }
 
     @DeleteMapping("/{id}")
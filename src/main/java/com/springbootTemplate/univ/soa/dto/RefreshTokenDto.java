@@ -0,0 +1,17 @@
+package com.springbootTemplate.univ.soa.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshTokenDto {
+
+    @NotBlank(message = "Le refresh token est requis")
+    private String refreshToken;
+}
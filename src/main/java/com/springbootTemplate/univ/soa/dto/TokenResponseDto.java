@@ -0,0 +1,18 @@
+package com.springbootTemplate.univ.soa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenResponseDto {
+    private String token;
+    private String type;
+    private String refreshToken;
+    // Durée de vie du token d'accès, en secondes
+    private Long expiresIn;
+}
@@ -0,0 +1,21 @@
+package com.springbootTemplate.univ.soa.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat d'une recherche groupée pour un ID ou un email demandé.
+ * trouve = false (et utilisateur absent) quand ms-persistance ne connaît pas cet utilisateur.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UtilisateurBatchItemDto {
+    private Long id;
+    private String email;
+    private Boolean trouve;
+    private UtilisateurResponseDto utilisateur;
+}
@@ -0,0 +1,25 @@
+package com.springbootTemplate.univ.soa.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UtilisateurBatchRequestDto {
+
+    @Size(max = 100, message = "100 IDs maximum par requête")
+    private List<@NotNull(message = "Les IDs ne peuvent pas être nuls") Long> ids;
+
+    @Size(max = 100, message = "100 emails maximum par requête")
+    private List<@NotNull(message = "Les emails ne peuvent pas être nuls")
+            @Email(message = "L'email doit être valide") String> emails;
+}
@@ -0,0 +1,7 @@
+package com.springbootTemplate.univ.soa.exception;
+
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
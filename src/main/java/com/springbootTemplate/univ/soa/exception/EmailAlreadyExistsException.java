@@ -2,6 +2,6 @@ package com.springbootTemplate.univ.soa.exception;
 
 public class EmailAlreadyExistsException extends RuntimeException {
     public EmailAlreadyExistsException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
\ No newline at end of file
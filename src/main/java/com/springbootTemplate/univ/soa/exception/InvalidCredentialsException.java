@@ -0,0 +1,18 @@
+package com.springbootTemplate.univ.soa.exception;
+
+import org.springframework.security.authentication.BadCredentialsException;
+
+/**
+ * Identifiants refusés (email inconnu, compte désactivé, mauvais mot de passe, token invalide).
+ * Sans trace de pile : sous une attaque par bourrage d'identifiants, ces échecs sont la majorité du trafic.
+ */
+public class InvalidCredentialsException extends BadCredentialsException {
+    public InvalidCredentialsException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,7 @@
+package com.springbootTemplate.univ.soa.exception;
+
+public class InvalidPatchException extends RuntimeException {
+    public InvalidPatchException(String message) {
+        super(message, null, false, false);
+    }
+}
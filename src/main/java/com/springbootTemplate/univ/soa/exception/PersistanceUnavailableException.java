@@ -0,0 +1,7 @@
+package com.springbootTemplate.univ.soa.exception;
+
+public class PersistanceUnavailableException extends RuntimeException {
+    public PersistanceUnavailableException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
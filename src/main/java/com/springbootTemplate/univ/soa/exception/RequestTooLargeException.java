@@ -0,0 +1,7 @@
+package com.springbootTemplate.univ.soa.exception;
+
+public class RequestTooLargeException extends RuntimeException {
+    public RequestTooLargeException(String message) {
+        super(message, null, false, false);
+    }
+}
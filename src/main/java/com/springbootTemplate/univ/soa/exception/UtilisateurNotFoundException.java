@@ -2,6 +2,7 @@ package com.springbootTemplate.univ.soa.exception;
 
 public class UtilisateurNotFoundException extends RuntimeException {
     public UtilisateurNotFoundException(String message) {
-        super(message);
+        // Sans trace de pile : un email ou un ID inconnu est un cas métier courant, pas un bug
+        super(message, null, false, false);
     }
 }
\ No newline at end of file
@@ -7,16 +7,13 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.Optional;
 
 @Slf4j
 @Component
@@ -32,33 +29,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Une seule vérification du token (signature + expiration) par requête
+            Optional<JwtPrincipal> principal = jwtUtil.verify(authorizationHeader.substring(7));
 
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                log.error("❌ Erreur lors de l'extraction du username du JWT: {}", e.getMessage());
-            }
-        }
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            String role = jwtUtil.extractRole(jwt);
-
-            UserDetails userDetails = User.builder()
-                    .username(username)
-                    .password("")
-                    .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)))
-                    .build();
-
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (principal.isPresent()) {
                 UsernamePasswordAuthenticationToken authenticationToken =
                         new UsernamePasswordAuthenticationToken(
-                                userDetails,
+                                principal.get(),
                                 null,
-                                userDetails.getAuthorities()
+                                principal.get().authorities()
                         );
 
                 authenticationToken.setDetails(
@@ -66,7 +47,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 );
 
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-                log.debug("✅ Utilisateur authentifié: {}", username);
+                log.debug("✅ Utilisateur authentifié: {}", principal.get().subject());
+            } else {
+                log.warn("⚠️ Token JWT invalide ou expiré");
             }
         }
 
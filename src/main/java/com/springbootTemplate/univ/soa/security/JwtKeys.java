@@ -0,0 +1,147 @@
+package com.springbootTemplate.univ.soa.security;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Clés EC P-256 (ES256) : lecture PEM, génération, empreinte RFC 7638 et publication au format JWK.
+ */
+public final class JwtKeys {
+
+    private static final int TAILLE_COORDONNEE = 32;
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private JwtKeys() {
+    }
+
+    /**
+     * Paire de clés P-256 lue depuis deux PEM (PKCS#8 pour la privée, X.509 pour la publique).
+     * Vérifie que la clé publique correspond bien à la clé privée.
+     */
+    public static KeyPair ecKeyPair(String privatePem, String publicPem) {
+        try {
+            KeyFactory factory = KeyFactory.getInstance("EC");
+            ECPrivateKey privee = (ECPrivateKey) factory.generatePrivate(new PKCS8EncodedKeySpec(decoderPem(privatePem)));
+            ECPublicKey publique = (ECPublicKey) factory.generatePublic(new X509EncodedKeySpec(decoderPem(publicPem)));
+            verifierCourbe(publique);
+            KeyPair paire = new KeyPair(publique, privee);
+            verifierPaire(paire);
+            return paire;
+        } catch (GeneralSecurityException | ClassCastException e) {
+            throw new IllegalArgumentException("Clés EC JWT illisibles : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Clé publique P-256 seule (X.509), pour vérifier les tokens d'une clé qui ne signe plus
+     */
+    public static ECPublicKey ecPublicKey(String publicPem) {
+        try {
+            ECPublicKey publique = (ECPublicKey) KeyFactory.getInstance("EC")
+                    .generatePublic(new X509EncodedKeySpec(decoderPem(publicPem)));
+            verifierCourbe(publique);
+            return publique;
+        } catch (GeneralSecurityException | ClassCastException e) {
+            throw new IllegalArgumentException("Clé publique EC JWT illisible : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Nouvelle paire P-256 (clé éphémère, perdue au redémarrage)
+     */
+    public static KeyPair generateEcKeyPair() {
+        try {
+            KeyPairGenerator generateur = KeyPairGenerator.getInstance("EC");
+            generateur.initialize(new ECGenParameterSpec("secp256r1"));
+            return generateur.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Génération de clé EC impossible", e);
+        }
+    }
+
+    /**
+     * Empreinte JWK (RFC 7638) de la clé publique, utilisée comme kid
+     */
+    public static String thumbprint(ECPublicKey key) {
+        String canonique = "{\"crv\":\"P-256\",\"kty\":\"EC\",\"x\":\"" + x(key) + "\",\"y\":\"" + y(key) + "\"}";
+        try {
+            return BASE64_URL.encodeToString(MessageDigest.getInstance("SHA-256")
+                    .digest(canonique.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Clé publique au format JWK (RFC 7517), sans aucun élément privé
+     */
+    public static Map<String, Object> publicJwk(ECPublicKey key, String kid) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("x", x(key));
+        jwk.put("y", y(key));
+        jwk.put("use", "sig");
+        jwk.put("alg", "ES256");
+        jwk.put("kid", kid);
+        return jwk;
+    }
+
+    private static String x(ECPublicKey key) {
+        return BASE64_URL.encodeToString(coordonnee(key.getW().getAffineX()));
+    }
+
+    private static String y(ECPublicKey key) {
+        return BASE64_URL.encodeToString(coordonnee(key.getW().getAffineY()));
+    }
+
+    // Entier non signé sur exactement 32 octets (big-endian), comme l'exige la RFC 7518
+    private static byte[] coordonnee(BigInteger valeur) {
+        byte[] brut = valeur.toByteArray();
+        byte[] resultat = new byte[TAILLE_COORDONNEE];
+        int longueur = Math.min(brut.length, TAILLE_COORDONNEE);
+        System.arraycopy(brut, brut.length - longueur, resultat, TAILLE_COORDONNEE - longueur, longueur);
+        return resultat;
+    }
+
+    private static byte[] decoderPem(String pem) {
+        if (pem == null || pem.isBlank()) {
+            throw new IllegalArgumentException("Clé PEM JWT manquante");
+        }
+        String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static void verifierCourbe(ECPublicKey publique) {
+        if (publique.getParams().getCurve().getField().getFieldSize() != 256) {
+            throw new IllegalArgumentException("La clé JWT doit être sur la courbe P-256 pour ES256");
+        }
+    }
+
+    private static void verifierPaire(KeyPair paire) throws GeneralSecurityException {
+        byte[] echantillon = "jwks".getBytes(StandardCharsets.UTF_8);
+        Signature signature = Signature.getInstance("SHA256withECDSA");
+        signature.initSign(paire.getPrivate());
+        signature.update(echantillon);
+        byte[] signe = signature.sign();
+        signature.initVerify(paire.getPublic());
+        signature.update(echantillon);
+        if (!signature.verify(signe)) {
+            throw new IllegalArgumentException("La clé publique JWT ne correspond pas à la clé privée");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.springbootTemplate.univ.soa.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Identité extraite d'un JWT vérifié (signature et expiration contrôlées une seule fois).
+ * Sert directement de principal à l'Authentication : getName() renvoie l'email (subject).
+ * tokenId (jti) identifie le token pour la révocation ; refresh distingue un refresh token d'un token d'accès.
+ * passwordFingerprint (refresh tokens uniquement) lie le token au mot de passe en vigueur à son émission.
+ */
+public record JwtPrincipal(String subject, String role, Instant expiration, String tokenId, boolean refresh,
+                           String passwordFingerprint) implements Principal {
+
+    // Une seule liste d'autorités par rôle, partagée par toutes les requêtes
+    private static final Map<String, List<GrantedAuthority>> AUTORITES = new ConcurrentHashMap<>();
+
+    public JwtPrincipal(String subject, String role, Instant expiration, String tokenId, boolean refresh) {
+        this(subject, role, expiration, tokenId, refresh, null);
+    }
+
+    @Override
+    public String getName() {
+        return subject;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        if (role == null) {
+            return List.of();
+        }
+        return AUTORITES.computeIfAbsent(role, r -> List.of(new SimpleGrantedAuthority("ROLE_" + r)));
+    }
+}
@@ -1,39 +1,259 @@
 package com.springbootTemplate.univ.soa.security;
 
+import com.springbootTemplate.univ.soa.cache.VerifiedTokenCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
-import javax.crypto.SecretKey;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Slf4j
 @Component
-public class JwtUtil {
+public class JwtUtil implements MeterBinder {
+
+    private static final String CLAIM_TYPE = "typ";
+    private static final String TYPE_REFRESH = "refresh";
+    private static final String CLAIM_MOT_DE_PASSE = "pwd";
 
     // ✅ Assure-toi que ton secret est >= 32 caractères pour HS256
-    @Value("${jwt.secret}")
+    @Value("${jwt.secret:}")
     private String secret;
 
-    @Value("${jwt.expiration:86400000}") // 24h par défaut
+    // Tokens d'accès courts : 15 min par défaut, comme application.properties (24h avant les refresh tokens)
+    @Value("${jwt.expiration:900000}")
     private Long expiration;
 
-    // Crée une clé sécurisée HMAC-SHA à partir du secret
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        // ⚠️ Vérifie que la taille est >= 256 bits
-        if (keyBytes.length < 32) {
-            throw new IllegalArgumentException("Le secret JWT doit faire au moins 32 octets pour HS256");
+    // Refresh tokens : durée de vie longue, échangés sur /refresh contre un nouveau couple de tokens
+    @Value("${jwt.refresh-expiration:604800000}") // 7 jours par défaut
+    private Long refreshExpiration;
+
+    @Value("${jwt.revocation.bucket-ms:60000}")
+    private long revocationBucketMs;
+
+    // HS256 (secret partagé) ou ES256 (clé privée ici, clé publique publiée sur /.well-known/jwks.json)
+    @Value("${jwt.algorithm:HS256}")
+    private String algorithm;
+
+    @Value("${jwt.ec.private-key:}")
+    private String ecPrivateKey;
+
+    @Value("${jwt.ec.public-key:}")
+    private String ecPublicKey;
+
+    // Anciens secrets HS256 (séparés par des virgules) : vérification seule, le temps que leurs tokens expirent
+    @Value("${jwt.previous-secrets:}")
+    private String previousSecrets;
+
+    // Fichier de clés rechargé à chaud (remplace jwt.secret / jwt.ec.* s'il est renseigné)
+    @Value("${jwt.keys.file:}")
+    private String keysFile;
+
+    // Jeu de clés remplacé d'un bloc au rechargement ; le parser le relit à chaque token
+    private volatile JwtKeyRing keyRing;
+    private FileTime keysFileVersion;
+    private JwtParser parser;
+    private TokenRevocationList revocations;
+
+    // Absent sauf si jwt.verified-cache.enabled=true
+    @Autowired(required = false)
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private Environment environment;
+
+    @PostConstruct
+    void init() {
+        keyRing = StringUtils.hasText(keysFile) ? chargerFichier() : jeuDepuisProprietes();
+        parser = parserPour(0);
+        revocations = new TokenRevocationList(Duration.ofMillis(revocationBucketMs),
+                Duration.ofMillis(Math.max(expiration, refreshExpiration)));
+        log.info("🔐 Signature JWT {} (kid {}), clés de vérification: {}",
+                keyRing.signing().algorithm(), keyRing.signing().kid(), keyRing.kids());
+    }
+
+    private JwtKeyRing jeuDepuisProprietes() {
+        JwtKeyRing.Builder builder = JwtKeyRing.builder();
+        boolean es256 = "ES256".equalsIgnoreCase(algorithm);
+        if (es256) {
+            builder.ec(null, ecKeyPair());
+        }
+        // En ES256 le secret est facultatif : s'il est fourni, les tokens HS256 restent acceptés
+        if (!es256 || (secret != null && secret.getBytes(StandardCharsets.UTF_8).length >= 32)) {
+            builder.hmac(null, secret);
+        }
+        if (StringUtils.hasText(previousSecrets)) {
+            for (String ancien : StringUtils.commaDelimitedListToStringArray(previousSecrets)) {
+                builder.hmac(null, ancien.trim());
+            }
+        }
+        return builder.build();
+    }
+
+    private KeyPair ecKeyPair() {
+        if (ecPrivateKey != null && !ecPrivateKey.isBlank()) {
+            return JwtKeys.ecKeyPair(ecPrivateKey, ecPublicKey);
+        }
+        // Clé éphémère tolérée en dev/test uniquement : ailleurs, chaque instance signerait avec sa propre clé
+        if (environment == null || !environment.acceptsProfiles(Profiles.of("dev", "test"))) {
+            throw new IllegalStateException("jwt.algorithm=ES256 exige jwt.ec.private-key et jwt.ec.public-key "
+                    + "(clé éphémère autorisée uniquement avec le profil dev ou test)");
+        }
+        log.warn("⚠️ Aucune clé jwt.ec.private-key : clé ES256 éphémère générée, "
+                + "les tokens ne survivront pas au redémarrage et ne sont pas partagés entre instances");
+        return JwtKeys.generateEcKeyPair();
+    }
+
+    private JwtKeyRing chargerFichier() {
+        try {
+            Path file = Path.of(keysFile);
+            keysFileVersion = Files.getLastModifiedTime(file);
+            return JwtKeyRing.load(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Fichier de clés JWT illisible: " + keysFile, e);
+        }
+    }
+
+    /**
+     * Recharger le fichier de clés s'il a changé, sans redémarrage.
+     * Un fichier invalide est ignoré : le jeu de clés actuel reste en place.
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.refresh-ms:60000}", initialDelayString = "${jwt.keys.refresh-ms:60000}")
+    public synchronized void reloadKeys() {
+        if (!StringUtils.hasText(keysFile)) {
+            return;
+        }
+        try {
+            Path file = Path.of(keysFile);
+            FileTime version = Files.getLastModifiedTime(file);
+            if (version.equals(keysFileVersion)) {
+                return;
+            }
+            JwtKeyRing nouveau = JwtKeyRing.load(file);
+            JwtKeyRing ancien = keyRing;
+            keyRing = nouveau;
+            keysFileVersion = version;
+
+            // Une clé retirée ne doit plus valider de token, même déjà vérifié et mis en cache
+            if (verifiedTokenCache != null && !nouveau.kids().containsAll(ancien.kids())) {
+                verifiedTokenCache.invalidateAll();
+            }
+            log.info("🔄 Clés JWT rechargées : signature kid {}, vérification {}",
+                    nouveau.signing().kid(), nouveau.kids());
+        } catch (IOException | RuntimeException e) {
+            log.error("❌ Rechargement des clés JWT impossible, jeu actuel conservé: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Clés publiques de vérification au format JWK (vide en HS256 : le secret n'est jamais publié)
+     */
+    public List<Map<String, Object>> publicJwks() {
+        return keyRing.jwks();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("jwt.revoked.tokens", revocations, TokenRevocationList::size)
+                .description("Tokens révoqués et pas encore expirés")
+                .register(registry);
+    }
+
+    /**
+     * Vérifier un token d'accès en une seule passe (signature + expiration) et en extraire l'identité.
+     * Optional vide si le token est invalide, expiré, révoqué, sans subject ou s'il s'agit d'un refresh token.
+     * Un token déjà vérifié et présent dans le cache n'est pas réanalysé.
+     */
+    public Optional<JwtPrincipal> verify(String token) {
+        Optional<JwtPrincipal> principal = verifiedTokenCache != null
+                ? verifiedTokenCache.get(token, this::verifierSignature)
+                : verifierSignature(token);
+        if (principal.isEmpty() || principal.get().refresh() || estRevoque(principal.get())) {
+            return Optional.empty();
+        }
+        return principal;
+    }
+
+    /**
+     * Vérifier un refresh token (jamais mis en cache : un par renouvellement)
+     */
+    public Optional<JwtPrincipal> verifyRefresh(String token) {
+        Optional<JwtPrincipal> principal = verifierSignature(token);
+        if (principal.isEmpty() || !principal.get().refresh() || estRevoque(principal.get())) {
+            return Optional.empty();
+        }
+        return principal;
+    }
+
+    /**
+     * Révoquer un token jusqu'à son expiration.
+     * false s'il l'était déjà : un refresh token ne peut être consommé qu'une fois.
+     */
+    public boolean revoke(JwtPrincipal principal) {
+        return revocations.revoke(principal.tokenId(), principal.expiration());
+    }
+
+    public long accessTokenTtlSeconds() {
+        return expiration / 1000;
+    }
+
+    private boolean estRevoque(JwtPrincipal principal) {
+        return revocations.isRevoked(principal.tokenId(), principal.expiration());
+    }
+
+    private Optional<JwtPrincipal> verifierSignature(String token) {
+        try {
+            Claims claims = analyser(token);
+            if (claims.getSubject() == null) {
+                return Optional.empty();
+            }
+            Date expirationDate = claims.getExpiration();
+            return Optional.of(new JwtPrincipal(
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    expirationDate != null ? expirationDate.toInstant() : null,
+                    claims.getId(),
+                    TYPE_REFRESH.equals(claims.get(CLAIM_TYPE, String.class)),
+                    claims.get(CLAIM_MOT_DE_PASSE, String.class)));
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token JWT refusé: {}", e.getMessage());
+            return Optional.empty();
         }
-        return Keys.hmacShaKeyFor(keyBytes);
     }
 
     public String extractUsername(String token) {
@@ -50,11 +270,37 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return analyser(token);
+    }
+
+    /**
+     * Vérifier la signature et les claims. Un token sans kid est essayé avec chaque clé de son algorithme :
+     * sa signature peut venir d'une clé plus ancienne que la plus récente.
+     */
+    private Claims analyser(String token) {
+        try {
+            return parser.parseClaimsJws(token).getBody();
+        } catch (SignatureException e) {
+            for (int rang = 1; ; rang++) {
+                try {
+                    return parserPour(rang).parseClaimsJws(token).getBody();
+                } catch (SignatureException autre) {
+                    // Clé candidate suivante
+                } catch (UnsupportedJwtException plusDeCandidate) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Parser qui vérifie avec la clé candidate de ce rang (le jeu de clés est relu à chaque token)
+    private JwtParser parserPour(int rang) {
+        return Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                return keyRing.verificationKey(header.getKeyId(), header.getAlgorithm(), rang);
+            }
+        }).build();
     }
 
     private Boolean isTokenExpired(String token) {
@@ -64,19 +310,54 @@ public class JwtUtil {
     public String generateToken(String email, String role) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", role);
-        return createToken(claims, email);
+        return createToken(claims, email, expiration);
+    }
+
+    /**
+     * Refresh token lié au hash du mot de passe en vigueur : un changement de mot de passe l'invalide
+     */
+    public String generateRefreshToken(String email, String role, String passwordHash) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("role", role);
+        claims.put(CLAIM_TYPE, TYPE_REFRESH);
+        claims.put(CLAIM_MOT_DE_PASSE, empreinteMotDePasse(passwordHash));
+        return createToken(claims, email, refreshExpiration);
+    }
+
+    /**
+     * Le refresh token a-t-il été émis avec ce hash de mot de passe ? false pour un token émis sans empreinte.
+     */
+    public boolean isIssuedForPassword(JwtPrincipal principal, String passwordHash) {
+        return principal.passwordFingerprint() != null && passwordHash != null
+                && MessageDigest.isEqual(principal.passwordFingerprint().getBytes(StandardCharsets.US_ASCII),
+                empreinteMotDePasse(passwordHash).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // 128 premiers bits du SHA-256 du hash BCrypt : lisible dans le token, inutilisable sans le hash lui-même
+    private static String empreinteMotDePasse(String passwordHash) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(passwordHash.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
     }
 
-    private String createToken(Map<String, Object> claims, String subject) {
+    private String createToken(Map<String, Object> claims, String subject, long duree) {
         Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expiration);
+        Date expiryDate = new Date(now.getTime() + duree);
 
+        // Toujours signé avec la clé la plus récente du jeu
+        JwtKeyRing.SigningKey cle = keyRing.signing();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, cle.kid())
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(cle.key(), cle.algorithm())
                 .compact();
     }
 
@@ -0,0 +1,144 @@
+package com.springbootTemplate.univ.soa.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Tokens révoqués (déconnexion, refresh token consommé), rangés par tranche de leur date d'expiration.
+ * Un token n'est cherché que dans la tranche de son expiration : la vérification est en O(1) et n'alloue rien
+ * (lecture volatile d'une table de longs immuable, sondage linéaire). Une tranche dont l'échéance est passée
+ * est ignorée puis réutilisée : les entrées disparaissent avec le TTL des tokens, sans balayage.
+ * Les écritures (rares) recopient la tranche concernée sous verrou.
+ * La liste est locale à l'instance ; un token expirant au-delà de la durée couverte n'est pas révocable.
+ */
+public class TokenRevocationList {
+
+    private static final long VIDE = 0L;
+
+    private final long trancheMillis;
+    private final AtomicReferenceArray<Tranche> tranches;
+
+    /**
+     * Table d'adressage ouvert immuable : empreintes 64 bits des jti expirant dans [epoque, epoque + 1) tranches
+     */
+    private record Tranche(long epoque, long[] table, int taille) {
+
+        boolean contient(long empreinte) {
+            int masque = table.length - 1;
+            for (int i = (int) mix(empreinte) & masque; ; i = (i + 1) & masque) {
+                long valeur = table[i];
+                if (valeur == empreinte) {
+                    return true;
+                }
+                if (valeur == VIDE) {
+                    return false;
+                }
+            }
+        }
+
+        Tranche avec(long empreinte) {
+            // Facteur de charge <= 1/2 : sondages courts et toujours au moins une case vide
+            int capacite = table.length;
+            while ((taille + 1) * 2 > capacite) {
+                capacite *= 2;
+            }
+            long[] copie = new long[capacite];
+            for (long valeur : table) {
+                if (valeur != VIDE) {
+                    inserer(copie, valeur);
+                }
+            }
+            inserer(copie, empreinte);
+            return new Tranche(epoque, copie, taille + 1);
+        }
+
+        private static void inserer(long[] table, long empreinte) {
+            int masque = table.length - 1;
+            int i = (int) mix(empreinte) & masque;
+            while (table[i] != VIDE && table[i] != empreinte) {
+                i = (i + 1) & masque;
+            }
+            table[i] = empreinte;
+        }
+    }
+
+    /**
+     * @param tranche  durée couverte par une tranche
+     * @param dureeMax durée de vie maximale d'un token (la plus longue, celle des refresh tokens)
+     */
+    public TokenRevocationList(Duration tranche, Duration dureeMax) {
+        this.trancheMillis = Math.max(1, tranche.toMillis());
+        this.tranches = new AtomicReferenceArray<>((int) (dureeMax.toMillis() / trancheMillis) + 2);
+    }
+
+    /**
+     * Révoquer un token jusqu'à son expiration.
+     * false s'il était déjà révoqué ou expiré (vérification et ajout atomiques).
+     */
+    public synchronized boolean revoke(String tokenId, Instant expiration) {
+        if (tokenId == null || expiration == null || !expiration.isAfter(Instant.now())) {
+            return false;
+        }
+        long epoque = Math.floorDiv(expiration.toEpochMilli(), trancheMillis);
+        int index = index(epoque);
+        long empreinte = empreinte(tokenId);
+        Tranche actuelle = tranches.get(index);
+        if (actuelle != null && actuelle.epoque() != epoque
+                && actuelle.epoque() >= Math.floorDiv(System.currentTimeMillis(), trancheMillis)) {
+            // Expiration au-delà de la durée couverte : ne jamais écraser une tranche encore valide
+            return false;
+        }
+        if (actuelle == null || actuelle.epoque() != epoque) {
+            actuelle = new Tranche(epoque, new long[8], 0);
+        } else if (actuelle.contient(empreinte)) {
+            return false;
+        }
+        tranches.set(index, actuelle.avec(empreinte));
+        return true;
+    }
+
+    public boolean isRevoked(String tokenId, Instant expiration) {
+        if (tokenId == null || expiration == null) {
+            return false;
+        }
+        long epoque = Math.floorDiv(expiration.toEpochMilli(), trancheMillis);
+        Tranche tranche = tranches.get(index(epoque));
+        return tranche != null && tranche.epoque() == epoque && tranche.contient(empreinte(tokenId));
+    }
+
+    /**
+     * Nombre de tokens révoqués et pas encore expirés
+     */
+    public long size() {
+        long epoqueCourante = Math.floorDiv(System.currentTimeMillis(), trancheMillis);
+        long total = 0;
+        for (int i = 0; i < tranches.length(); i++) {
+            Tranche tranche = tranches.get(i);
+            if (tranche != null && tranche.epoque() >= epoqueCourante) {
+                total += tranche.taille();
+            }
+        }
+        return total;
+    }
+
+    private int index(long epoque) {
+        return (int) Math.floorMod(epoque, (long) tranches.length());
+    }
+
+    // FNV-1a 64 bits du jti, calculé sans allocation ; 0 est réservé aux cases vides
+    static long empreinte(String tokenId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < tokenId.length(); i++) {
+            hash ^= tokenId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == VIDE ? 1L : hash;
+    }
+
+    private static long mix(long valeur) {
+        valeur ^= valeur >>> 33;
+        valeur *= 0xff51afd7ed558ccdL;
+        return valeur ^ (valeur >>> 33);
+    }
+}
@@ -0,0 +1,81 @@
+package com.springbootTemplate.univ.soa.service;
+
+import com.springbootTemplate.univ.soa.dto.UtilisateurResponseDto;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * ETag fort d'un profil : empreinte SHA-256 (tronquée à 64 bits) de son contenu canonique.
+ * Toute modification d'un champ exposé change l'ETag, que ms-persistance mette à jour dateModification ou non.
+ */
+public final class UtilisateurEtag {
+
+    private UtilisateurEtag() {
+    }
+
+    public static String of(UtilisateurResponseDto utilisateur) {
+        String canonique = String.join("|",
+                String.valueOf(utilisateur.getId()),
+                String.valueOf(utilisateur.getEmail()),
+                String.valueOf(utilisateur.getNom()),
+                String.valueOf(utilisateur.getPrenom()),
+                String.valueOf(utilisateur.getRole()),
+                String.valueOf(utilisateur.getActif()),
+                trie(utilisateur.getRegimesIds()),
+                trie(utilisateur.getAllergenesIds()),
+                trie(utilisateur.getTypesCuisinePreferesIds()),
+                String.valueOf(utilisateur.getDateCreation()),
+                String.valueOf(utilisateur.getDateModification()));
+        try {
+            byte[] empreinte = MessageDigest.getInstance("SHA-256").digest(canonique.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(empreinte, 0, 8) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Comparaison forte d'un en-tête If-Match (liste d'ETags ou "*") avec l'ETag courant
+     */
+    public static boolean matches(String ifMatch, String etag) {
+        if (!StringUtils.hasText(ifMatch)) {
+            return true;
+        }
+        for (String candidat : ifMatch.split(",")) {
+            String valeur = candidat.trim();
+            if (valeur.equals("*") || valeur.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Comparaison faible d'un en-tête If-None-Match avec l'ETag courant (true : 304 possible)
+     */
+    public static boolean matchesNoneMatch(String ifNoneMatch, String etag) {
+        if (!StringUtils.hasText(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidat : ifNoneMatch.split(",")) {
+            String valeur = candidat.trim();
+            if (valeur.startsWith("W/")) {
+                valeur = valeur.substring(2);
+            }
+            if (valeur.equals("*") || valeur.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String trie(Set<Long> ids) {
+        return ids == null ? "null" : new TreeSet<>(ids).toString();
+    }
+}
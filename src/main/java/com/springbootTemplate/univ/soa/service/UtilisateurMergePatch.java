@@ -0,0 +1,201 @@
+package com.springbootTemplate.univ.soa.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.springbootTemplate.univ.soa.dto.MsPersistanceUtilisateurDto;
+import com.springbootTemplate.univ.soa.dto.UtilisateurResponseDto;
+import com.springbootTemplate.univ.soa.exception.InvalidPatchException;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Document JSON Merge Patch (RFC 7396) validé pour un profil utilisateur.
+ * Champs simples : email, nom, prenom (null interdit, ce sont des champs obligatoires).
+ * Préférences (regimesIds, allergenesIds, typesCuisinePreferesIds) :
+ * - tableau : remplace l'ensemble (sémantique RFC 7396 des tableaux) ; null : vide l'ensemble
+ * - objet indexé par ID : {"7": true} ajoute 7, {"3": null} retire 3, sans renvoyer le reste de l'ensemble
+ * Le mot de passe, le rôle, l'état et les dates ne sont pas modifiables par ce biais.
+ */
+public final class UtilisateurMergePatch {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final Set<String> PREFERENCES = Set.of("regimesIds", "allergenesIds", "typesCuisinePreferesIds");
+
+    private final Map<String, String> champs = new LinkedHashMap<>();
+    private final Map<String, Delta> preferences = new LinkedHashMap<>();
+
+    private UtilisateurMergePatch() {
+    }
+
+    /**
+     * Variation d'un ensemble d'IDs : remplacement complet (non null) ou ajouts / retraits
+     */
+    private record Delta(Set<Long> remplacement, Set<Long> ajouts, Set<Long> retraits) {
+
+        Set<Long> appliquer(Set<Long> existant) {
+            Set<Long> resultat = new LinkedHashSet<>(remplacement != null
+                    ? remplacement
+                    : existant != null ? existant : Collections.emptySet());
+            resultat.addAll(ajouts);
+            resultat.removeAll(retraits);
+            return resultat;
+        }
+    }
+
+    public static UtilisateurMergePatch parse(JsonNode document) {
+        if (document == null || !document.isObject()) {
+            throw new InvalidPatchException("Le patch doit être un objet JSON");
+        }
+        UtilisateurMergePatch patch = new UtilisateurMergePatch();
+        Iterator<Map.Entry<String, JsonNode>> champs = document.fields();
+        while (champs.hasNext()) {
+            Map.Entry<String, JsonNode> champ = champs.next();
+            String nom = champ.getKey();
+            JsonNode valeur = champ.getValue();
+            switch (nom) {
+                case "email" -> patch.champs.put(nom, email(valeur));
+                case "nom", "prenom" -> patch.champs.put(nom, texte(nom, valeur));
+                default -> {
+                    if (!PREFERENCES.contains(nom)) {
+                        throw new InvalidPatchException("Champ non modifiable par PATCH: " + nom);
+                    }
+                    patch.preferences.put(nom, delta(nom, valeur));
+                }
+            }
+        }
+        return patch;
+    }
+
+    public boolean isEmpty() {
+        return champs.isEmpty() && preferences.isEmpty();
+    }
+
+    public Optional<String> email() {
+        return Optional.ofNullable(champs.get("email"));
+    }
+
+    public Set<String> champsModifies() {
+        Set<String> noms = new LinkedHashSet<>(champs.keySet());
+        noms.addAll(preferences.keySet());
+        return noms;
+    }
+
+    /**
+     * Document normalisé transmis à ms-persistance : uniquement les champs modifiés
+     */
+    public ObjectNode toJson() {
+        JsonNodeFactory factory = JsonNodeFactory.instance;
+        ObjectNode document = factory.objectNode();
+        champs.forEach(document::put);
+        preferences.forEach((nom, delta) -> {
+            if (delta.remplacement() != null) {
+                ArrayNode ids = document.putArray(nom);
+                delta.remplacement().forEach(ids::add);
+            } else {
+                ObjectNode operations = document.putObject(nom);
+                delta.ajouts().forEach(id -> operations.put(String.valueOf(id), true));
+                delta.retraits().forEach(id -> operations.putNull(String.valueOf(id)));
+            }
+        });
+        return document;
+    }
+
+    /**
+     * Payload complet de PUT (repli quand ms-persistance ne sait pas appliquer le patch)
+     */
+    public MsPersistanceUtilisateurDto applyTo(UtilisateurResponseDto existant) {
+        return MsPersistanceUtilisateurDto.builder()
+                .id(existant.getId())
+                .email(champs.getOrDefault("email", existant.getEmail()))
+                .nom(champs.getOrDefault("nom", existant.getNom()))
+                .prenom(champs.getOrDefault("prenom", existant.getPrenom()))
+                .role(existant.getRole())
+                .actif(existant.getActif())
+                .regimesIds(appliquer("regimesIds", existant.getRegimesIds()))
+                .allergenesIds(appliquer("allergenesIds", existant.getAllergenesIds()))
+                .typesCuisinePreferesIds(appliquer("typesCuisinePreferesIds", existant.getTypesCuisinePreferesIds()))
+                .dateCreation(existant.getDateCreation())
+                .dateModification(existant.getDateModification())
+                .build();
+    }
+
+    private Set<Long> appliquer(String nom, Set<Long> existant) {
+        Delta delta = preferences.get(nom);
+        return delta == null ? existant : delta.appliquer(existant);
+    }
+
+    private static String email(JsonNode valeur) {
+        String email = texte("email", valeur);
+        if (!EMAIL.matcher(email).matches()) {
+            throw new InvalidPatchException("L'email doit être valide");
+        }
+        return email;
+    }
+
+    private static String texte(String nom, JsonNode valeur) {
+        if (!valeur.isTextual()) {
+            throw new InvalidPatchException("Le champ " + nom + " doit être une chaîne non nulle");
+        }
+        String texte = valeur.asText();
+        if (!nom.equals("email") && (texte.length() < 2 || texte.length() > 100)) {
+            throw new InvalidPatchException("Le champ " + nom + " doit contenir entre 2 et 100 caractères");
+        }
+        return texte;
+    }
+
+    private static Delta delta(String nom, JsonNode valeur) {
+        if (valeur.isNull()) {
+            return new Delta(Set.of(), Set.of(), Set.of());
+        }
+        if (valeur.isArray()) {
+            Set<Long> ids = new LinkedHashSet<>();
+            valeur.forEach(id -> {
+                if (!id.isIntegralNumber()) {
+                    throw new InvalidPatchException("Identifiant invalide dans " + nom + ": " + id);
+                }
+                ids.add(id.longValue());
+            });
+            return new Delta(ids, Set.of(), Set.of());
+        }
+        if (valeur.isObject()) {
+            Set<Long> ajouts = new TreeSet<>();
+            Set<Long> retraits = new TreeSet<>();
+            Iterator<Map.Entry<String, JsonNode>> operations = valeur.fields();
+            while (operations.hasNext()) {
+                Map.Entry<String, JsonNode> operation = operations.next();
+                Long id = identifiant(nom, operation.getKey());
+                JsonNode action = operation.getValue();
+                if (action.isBoolean() && action.booleanValue()) {
+                    ajouts.add(id);
+                } else if (action.isNull() || (action.isBoolean() && !action.booleanValue())) {
+                    retraits.add(id);
+                } else {
+                    throw new InvalidPatchException("Opération invalide sur " + nom + "." + operation.getKey()
+                            + " (true pour ajouter, null pour retirer)");
+                }
+            }
+            return new Delta(null, ajouts, retraits);
+        }
+        throw new InvalidPatchException("Le champ " + nom + " doit être un tableau, un objet ou null");
+    }
+
+    private static Long identifiant(String nom, String cle) {
+        try {
+            return Long.valueOf(cle);
+        } catch (NumberFormatException e) {
+            throw new InvalidPatchException("Identifiant invalide dans " + nom + ": " + cle);
+        }
+    }
+}
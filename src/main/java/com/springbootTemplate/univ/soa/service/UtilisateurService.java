@@ -2,22 +2,49 @@ package com.springbootTemplate.univ.soa.service;
 
 import com.springbootTemplate.univ.soa.dto.*;
 
+import java.io.OutputStream;
 import java.util.List;
 
 public interface UtilisateurService {
 
     UtilisateurResponseDto register(UtilisateurCreateDto createDto);
 
-    String login(LoginDto loginDto);
+    TokenResponseDto login(LoginDto loginDto);
+
+    /**
+     * Échanger un refresh token (à usage unique) contre un nouveau couple de tokens, sans mot de passe
+     */
+    TokenResponseDto refresh(String refreshToken);
+
+    /**
+     * Révoquer le token d'accès et/ou le refresh token fournis (chacun peut être null)
+     */
+    void logout(String accessToken, String refreshToken);
 
     UtilisateurResponseDto getUtilisateurById(Long id);
 
     UtilisateurResponseDto getUtilisateurByEmail(String email);
 
+    void streamUtilisateurById(Long id, OutputStream out);
+
+    void streamUtilisateurByEmail(String email, OutputStream out);
+
     List<UtilisateurResponseDto> getAllUtilisateurs();
 
+    List<UtilisateurBatchItemDto> getUtilisateursBatch(UtilisateurBatchRequestDto batchDto);
+
     UtilisateurResponseDto updateUtilisateur(Long id, UtilisateurUpdateDto updateDto);
 
+    /**
+     * Mise à jour conditionnelle : ifMatch (en-tête If-Match, éventuellement null) doit désigner la version courante
+     */
+    UtilisateurResponseDto updateUtilisateur(Long id, UtilisateurUpdateDto updateDto, String ifMatch);
+
+    /**
+     * Mise à jour partielle (JSON Merge Patch) : seuls les champs présents dans le patch sont modifiés
+     */
+    UtilisateurResponseDto patchUtilisateur(Long id, UtilisateurMergePatch patch, String ifMatch);
+
     void deleteUtilisateur(Long id);
 
     void forgotPassword(String email);
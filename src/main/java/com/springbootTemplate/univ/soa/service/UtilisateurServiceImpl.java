@@ -1,39 +1,93 @@
 package com.springbootTemplate.univ.soa.service;
 
+import com.springbootTemplate.univ.soa.cache.RegisteredEmailFilter;
+import com.springbootTemplate.univ.soa.cache.UtilisateurProfileCache;
+import com.springbootTemplate.univ.soa.client.FetchScope;
 import com.springbootTemplate.univ.soa.client.PersistanceClient;
+import com.springbootTemplate.univ.soa.client.RequestDeadline;
 import com.springbootTemplate.univ.soa.dto.*;
+import com.springbootTemplate.univ.soa.exception.DeadlineExceededException;
 import com.springbootTemplate.univ.soa.exception.EmailAlreadyExistsException;
-import com.springbootTemplate.univ.soa.exception.UtilisateurNotFoundException;
+import com.springbootTemplate.univ.soa.exception.InvalidCredentialsException;
+import com.springbootTemplate.univ.soa.exception.PersistanceUnavailableException;
+import com.springbootTemplate.univ.soa.exception.PreconditionFailedException;
+import com.springbootTemplate.univ.soa.security.JwtPrincipal;
 import com.springbootTemplate.univ.soa.security.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class UtilisateurServiceImpl implements UtilisateurService {
+public class UtilisateurServiceImpl implements UtilisateurService, MeterBinder {
 
     private final PersistanceClient persistanceClient;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final UtilisateurProfileCache profileCache;
+    private final RegisteredEmailFilter emailFilter;
+
+    // Écritures d'un même utilisateur exécutées l'une après l'autre ; les PUT simples arrivés entre-temps fusionnent
+    private final WriteCoalescer<Long, MiseAJour, UtilisateurResponseDto> ecritures =
+            new WriteCoalescer<>(64, UtilisateurServiceImpl::fusionner);
+
+    /**
+     * Écriture en file : un PUT (dto) ou un merge patch (patch), éventuellement conditionnel (ifMatch),
+     * demandée par principal (nom de l'utilisateur authentifié, null sinon)
+     */
+    private record MiseAJour(Long id, UtilisateurUpdateDto dto, UtilisateurMergePatch patch, String ifMatch,
+                             String principal) {
+
+        boolean fusionnable() {
+            return patch == null && ifMatch == null
+                    && (dto.getNouveauMotDePasse() == null || dto.getNouveauMotDePasse().trim().isEmpty());
+        }
+    }
+
+    @Value("${utilisateur.register.fast-reject-enabled:true}")
+    private boolean registerFastRejectEnabled;
+
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ecritures.bindTo(registry, "updateUtilisateur");
+    }
 
     @Override
     public UtilisateurResponseDto register(UtilisateurCreateDto createDto) {
         log.info("📝 Tentative d'inscription - Email: {}", createDto.getEmail());
 
-        // Vérifier si l'email existe déjà via ms-persistance
-        if (persistanceClient.existsByEmail(createDto.getEmail())) {
-            log.error("❌ Email déjà utilisé: {}", createDto.getEmail());
+        // Rejet local immédiat si l'email appartient à un profil déjà en cache
+        if (registerFastRejectEnabled && profileCache.getIfPresentByEmail(createDto.getEmail()) != null) {
+            log.warn("⚠️ Email déjà utilisé (cache local): {}", createDto.getEmail());
             throw new EmailAlreadyExistsException("Cet email est déjà utilisé");
         }
 
+        // Création conditionnelle : ms-persistance refuse un email déjà pris (409), sans GET préalable
         UtilisateurResponseDto response = persistanceClient.createUtilisateur(createDto);
+        profileCache.put(response);
+        emailFilter.add(response.getEmail());
 
         log.info("✅ Utilisateur créé avec succès - ID: {}, Email: {}",
                 response.getId(), response.getEmail());
@@ -42,47 +96,112 @@ public class UtilisateurServiceImpl implements UtilisateurService {
     }
 
     @Override
-    public String login(LoginDto loginDto) {
+    public TokenResponseDto login(LoginDto loginDto) {
         log.info("🔐 Tentative de connexion - Email: {}", loginDto.getEmail());
 
-        // Récupérer l'utilisateur avec son hash via ms-persistance
-        UtilisateurAuthDto utilisateur;
-        try {
-            utilisateur = persistanceClient.getUtilisateurForAuth(loginDto.getEmail());
-        } catch (UtilisateurNotFoundException e) {
-            log.error("❌ Utilisateur non trouvé: {}", loginDto.getEmail());
-            throw new BadCredentialsException("Email ou mot de passe incorrect");
+        // Email certainement inconnu : refus sans appel à ms-persistance
+        if (!emailFilter.mightContain(loginDto.getEmail())) {
+            log.debug("Connexion refusée, email absent du filtre: {}", loginDto.getEmail());
+            throw new InvalidCredentialsException("Email ou mot de passe incorrect");
         }
 
+        // Récupérer l'utilisateur avec son hash via ms-persistance
+        UtilisateurAuthDto utilisateur = persistanceClient.findUtilisateurForAuth(loginDto.getEmail())
+                .orElseThrow(() -> {
+                    log.debug("Connexion refusée, utilisateur inconnu: {}", loginDto.getEmail());
+                    return new InvalidCredentialsException("Email ou mot de passe incorrect");
+                });
+
         // Vérifier si le compte est actif
         if (!utilisateur.getActif()) {
-            log.error("❌ Compte désactivé: {}", loginDto.getEmail());
-            throw new BadCredentialsException("Compte désactivé");
+            log.warn("⚠️ Connexion refusée, compte désactivé: {}", loginDto.getEmail());
+            throw new InvalidCredentialsException("Compte désactivé");
         }
 
         // ✅ VALIDATION DU MOT DE PASSE avec le PasswordEncoder de MS-UTILISATEUR
+        RequestDeadline.check("vérification du mot de passe");
         if (!passwordEncoder.matches(loginDto.getMotDePasse(), utilisateur.getMotDePasse())) {
-            log.error("❌ Mot de passe incorrect pour: {}", loginDto.getEmail());
-            throw new BadCredentialsException("Email ou mot de passe incorrect");
+            log.warn("⚠️ Connexion refusée, mot de passe incorrect: {}", loginDto.getEmail());
+            throw new InvalidCredentialsException("Email ou mot de passe incorrect");
         }
 
-        // Générer le token JWT
-        String token = jwtUtil.generateToken(utilisateur.getEmail(), utilisateur.getRole().name());
+        // Générer le token d'accès et le refresh token
+        TokenResponseDto tokens = emettreTokens(utilisateur);
         log.info("✅ Connexion réussie - Email: {}", utilisateur.getEmail());
 
-        return token;
+        return tokens;
+    }
+
+    @Override
+    public TokenResponseDto refresh(String refreshToken) {
+        JwtPrincipal principal = jwtUtil.verifyRefresh(refreshToken)
+                .orElseThrow(() -> new InvalidCredentialsException("Refresh token invalide, expiré ou révoqué"));
+        log.info("🔄 Renouvellement des tokens - Email: {}", principal.subject());
+
+        // État persisté, jamais le cache des profils : compte actif, rôle à jour et mot de passe inchangé
+        // depuis l'émission du refresh token (pas de BCrypt : seule l'empreinte du hash est comparée)
+        UtilisateurAuthDto utilisateur = persistanceClient.findUtilisateurForAuth(principal.subject())
+                .orElseThrow(() -> new InvalidCredentialsException("Refresh token invalide, expiré ou révoqué"));
+        if (!Boolean.TRUE.equals(utilisateur.getActif())) {
+            log.warn("⚠️ Renouvellement refusé, compte désactivé: {}", principal.subject());
+            throw new InvalidCredentialsException("Compte désactivé");
+        }
+        if (!jwtUtil.isIssuedForPassword(principal, utilisateur.getMotDePasse())) {
+            log.warn("⚠️ Renouvellement refusé, mot de passe changé depuis l'émission: {}", principal.subject());
+            throw new InvalidCredentialsException("Refresh token invalide, expiré ou révoqué");
+        }
+
+        // Usage unique : le premier renouvellement révoque le refresh token, les suivants sont refusés
+        if (!jwtUtil.revoke(principal)) {
+            log.warn("⚠️ Refresh token déjà utilisé: {}", principal.subject());
+            throw new InvalidCredentialsException("Refresh token invalide, expiré ou révoqué");
+        }
+        return emettreTokens(utilisateur);
+    }
+
+    @Override
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            jwtUtil.verify(accessToken).ifPresent(jwtUtil::revoke);
+        }
+        if (refreshToken != null) {
+            jwtUtil.verifyRefresh(refreshToken).ifPresent(jwtUtil::revoke);
+        }
+        log.info("👋 Déconnexion : tokens révoqués");
+    }
+
+    private TokenResponseDto emettreTokens(UtilisateurAuthDto utilisateur) {
+        String role = utilisateur.getRole().name();
+        return TokenResponseDto.builder()
+                .token(jwtUtil.generateToken(utilisateur.getEmail(), role))
+                .type("Bearer")
+                .refreshToken(jwtUtil.generateRefreshToken(utilisateur.getEmail(), role, utilisateur.getMotDePasse()))
+                .expiresIn(jwtUtil.accessTokenTtlSeconds())
+                .build();
     }
 
     @Override
     public UtilisateurResponseDto getUtilisateurById(Long id) {
         log.info("🔍 Recherche utilisateur par ID: {}", id);
-        return persistanceClient.getUtilisateurById(id);
+        return profileCache.getById(id, persistanceClient::getUtilisateurById);
     }
 
     @Override
     public UtilisateurResponseDto getUtilisateurByEmail(String email) {
         log.info("🔍 Recherche utilisateur par email: {}", email);
-        return persistanceClient.getUtilisateurByEmail(email);
+        return profileCache.getByEmail(email, persistanceClient::getUtilisateurByEmail);
+    }
+
+    @Override
+    public void streamUtilisateurById(Long id, OutputStream out) {
+        log.info("🔍 Recherche utilisateur par ID (pass-through): {}", id);
+        persistanceClient.streamUtilisateurById(id, out);
+    }
+
+    @Override
+    public void streamUtilisateurByEmail(String email, OutputStream out) {
+        log.info("🔍 Recherche utilisateur par email (pass-through): {}", email);
+        persistanceClient.streamUtilisateurByEmail(email, out);
     }
 
     @Override
@@ -93,19 +212,119 @@ public class UtilisateurServiceImpl implements UtilisateurService {
         return utilisateurs;
     }
 
+    @Override
+    public List<UtilisateurBatchItemDto> getUtilisateursBatch(UtilisateurBatchRequestDto batchDto) {
+        Set<Long> ids = batchDto.getIds() != null ? new LinkedHashSet<>(batchDto.getIds()) : Set.of();
+        Set<String> emails = batchDto.getEmails() != null ? new LinkedHashSet<>(batchDto.getEmails()) : Set.of();
+        log.info("📋 Recherche groupée - {} IDs, {} emails", ids.size(), emails.size());
+
+        // 1. Servir depuis le cache ce qui peut l'être
+        Map<Long, UtilisateurResponseDto> parId = new HashMap<>();
+        List<Long> idsManquants = new ArrayList<>();
+        for (Long id : ids) {
+            UtilisateurResponseDto utilisateur = profileCache.getIfPresent(id);
+            if (utilisateur != null) {
+                parId.put(id, utilisateur);
+            } else {
+                idsManquants.add(id);
+            }
+        }
+
+        Map<String, UtilisateurResponseDto> parEmail = new HashMap<>();
+        List<String> emailsManquants = new ArrayList<>();
+        for (String email : emails) {
+            UtilisateurResponseDto utilisateur = profileCache.getIfPresentByEmail(email);
+            if (utilisateur != null) {
+                parEmail.put(email.toLowerCase(Locale.ROOT), utilisateur);
+            } else {
+                emailsManquants.add(email);
+            }
+        }
+
+        // 2. Un seul aller-retour groupé (ou des appels parallèles bornés) pour le reste
+        long debut = profileCache.debutChargement();
+        persistanceClient.getUtilisateursByIds(idsManquants).forEach((id, utilisateur) -> {
+            parId.put(id, utilisateur);
+            profileCache.put(utilisateur, debut);
+        });
+        persistanceClient.getUtilisateursByEmails(emailsManquants).forEach((email, utilisateur) -> {
+            parEmail.put(email.toLowerCase(Locale.ROOT), utilisateur);
+            profileCache.put(utilisateur, debut);
+        });
+
+        // 3. Résultat partiel : un élément par clé demandée, marqué trouvé ou non
+        List<UtilisateurBatchItemDto> resultats = new ArrayList<>(ids.size() + emails.size());
+        for (Long id : ids) {
+            UtilisateurResponseDto utilisateur = parId.get(id);
+            resultats.add(UtilisateurBatchItemDto.builder()
+                    .id(id)
+                    .trouve(utilisateur != null)
+                    .utilisateur(utilisateur)
+                    .build());
+        }
+        for (String email : emails) {
+            UtilisateurResponseDto utilisateur = parEmail.get(email.toLowerCase(Locale.ROOT));
+            resultats.add(UtilisateurBatchItemDto.builder()
+                    .email(email)
+                    .trouve(utilisateur != null)
+                    .utilisateur(utilisateur)
+                    .build());
+        }
+
+        log.info("✅ Recherche groupée terminée - {} trouvés sur {}",
+                resultats.stream().filter(UtilisateurBatchItemDto::getTrouve).count(), resultats.size());
+        return resultats;
+    }
+
     @Override
     public UtilisateurResponseDto updateUtilisateur(Long id, UtilisateurUpdateDto updateDto) {
+        return updateUtilisateur(id, updateDto, null);
+    }
+
+    @Override
+    public UtilisateurResponseDto updateUtilisateur(Long id, UtilisateurUpdateDto updateDto, String ifMatch) {
+        return ecritures.submit(id, new MiseAJour(id, updateDto, null, ifMatch, principalCourant()), this::ecrire);
+    }
+
+    private UtilisateurResponseDto ecrire(MiseAJour miseAJour) {
+        return miseAJour.patch() != null
+                ? appliquerPatch(miseAJour.id(), miseAJour.patch(), miseAJour.ifMatch())
+                : appliquerMiseAJour(miseAJour.id(), miseAJour.dto(), miseAJour.ifMatch());
+    }
+
+    private UtilisateurResponseDto appliquerMiseAJour(Long id, UtilisateurUpdateDto updateDto, String ifMatch) {
         log.info("📝 Mise à jour utilisateur - ID: {}", id);
-        UtilisateurResponseDto existingUser = persistanceClient.getUtilisateurById(id);
+        boolean changementMotDePasse = updateDto.getNouveauMotDePasse() != null
+                && !updateDto.getNouveauMotDePasse().trim().isEmpty();
+        if (changementMotDePasse
+                && (updateDto.getAncienMotDePasse() == null || updateDto.getAncienMotDePasse().trim().isEmpty())) {
+            log.error("❌ Ancien mot de passe requis pour changer le mot de passe");
+            throw new BadCredentialsException("L'ancien mot de passe est requis pour changer le mot de passe");
+        }
 
-        if (updateDto.getNouveauMotDePasse() != null && !updateDto.getNouveauMotDePasse().trim().isEmpty()) {
+        // Changement de mot de passe avec un email déjà connu : profil et hash lus en parallèle
+        String emailConnu = changementMotDePasse ? emailConnu(id) : null;
+        UtilisateurResponseDto existingUser;
+        UtilisateurAuthDto authUser = null;
+        if (emailConnu != null) {
+            try (FetchScope scope = new FetchScope()) {
+                Supplier<UtilisateurResponseDto> profil = scope.fork(() -> versionDeReference(id, ifMatch));
+                Supplier<Optional<UtilisateurAuthDto>> auth =
+                        scope.fork(() -> persistanceClient.findUtilisateurForAuth(emailConnu));
+                scope.join();
+                existingUser = profil.get();
+                authUser = auth.get().filter(utilisateur -> id.equals(utilisateur.getId())).orElse(null);
+            }
+        } else {
+            existingUser = versionDeReference(id, ifMatch);
+        }
 
-            if (updateDto.getAncienMotDePasse() == null || updateDto.getAncienMotDePasse().trim().isEmpty()) {
-                log.error("❌ Ancien mot de passe requis pour changer le mot de passe");
-                throw new BadCredentialsException("L'ancien mot de passe est requis pour changer le mot de passe");
+        if (changementMotDePasse) {
+            if (authUser == null) {
+                authUser = persistanceClient.getUtilisateurForAuth(existingUser.getEmail());
             }
-            UtilisateurAuthDto authUser = persistanceClient.getUtilisateurForAuth(existingUser.getEmail());
 
+            RequestDeadline.check("vérification du mot de passe");
             if (!passwordEncoder.matches(updateDto.getAncienMotDePasse(), authUser.getMotDePasse())) {
                 log.error("❌ Ancien mot de passe incorrect pour l'utilisateur ID: {}", id);
                 throw new BadCredentialsException("L'ancien mot de passe est incorrect");
@@ -135,15 +354,102 @@ public class UtilisateurServiceImpl implements UtilisateurService {
                 .build();
 
         UtilisateurResponseDto response = persistanceClient.updateUtilisateur(id, fullDto);
+        emailFilter.add(fullDto.getEmail());
+        profileCache.invalidate(id);
+        profileCache.invalidateEmail(existingUser.getEmail());
         log.info("✅ Utilisateur mis à jour avec succès - ID: {}", id);
 
         return response;
     }
 
+    @Override
+    public UtilisateurResponseDto patchUtilisateur(Long id, UtilisateurMergePatch patch, String ifMatch) {
+        return ecritures.submit(id, new MiseAJour(id, null, patch, ifMatch, principalCourant()), this::ecrire);
+    }
+
+    private UtilisateurResponseDto appliquerPatch(Long id, UtilisateurMergePatch patch, String ifMatch) {
+        log.info("🩹 Mise à jour partielle utilisateur - ID: {} - champs: {}", id, patch.champsModifies());
+        if (patch.isEmpty()) {
+            return versionDeReference(id, ifMatch);
+        }
+
+        // Requête conditionnelle : version vérifiée localement avant toute écriture, y compris un PATCH natif
+        UtilisateurResponseDto verifie = ifMatch != null ? versionDeReference(id, ifMatch) : null;
+
+        // PATCH natif : seul le delta part vers ms-persistance ; sinon fusion locale et PUT complet
+        UtilisateurResponseDto response = persistanceClient.patchUtilisateur(id, patch.toJson())
+                .orElseGet(() -> {
+                    UtilisateurResponseDto existingUser = verifie != null ? verifie : versionDeReference(id, null);
+                    return persistanceClient.updateUtilisateur(id, patch.applyTo(existingUser));
+                });
+
+        patch.email().ifPresent(emailFilter::add);
+        profileCache.invalidate(id);
+        log.info("✅ Utilisateur mis à jour partiellement - ID: {}", id);
+        return response;
+    }
+
+    /**
+     * Email de l'utilisateur connu sans appel distant (profil en cache, sinon utilisateur authentifié).
+     * Simple indice : le hash lu avec cet email n'est retenu que s'il appartient bien à cet ID.
+     */
+    private String emailConnu(Long id) {
+        UtilisateurResponseDto enCache = profileCache.getIfPresent(id);
+        if (enCache != null && enCache.getEmail() != null) {
+            return enCache.getEmail();
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+    /**
+     * Fusion de deux PUT successifs : les champs renseignés du plus récent l'emportent.
+     * Les changements de mot de passe, les patchs et les écritures conditionnelles ne fusionnent pas,
+     * ni les écritures de deux appelants différents : le lot s'exécute avec l'identité de celui qui l'a créé.
+     */
+    private static MiseAJour fusionner(MiseAJour enAttente, MiseAJour nouvelle) {
+        if (!enAttente.fusionnable() || !nouvelle.fusionnable()
+                || !Objects.equals(enAttente.principal(), nouvelle.principal())) {
+            return null;
+        }
+        UtilisateurUpdateDto a = enAttente.dto();
+        UtilisateurUpdateDto b = nouvelle.dto();
+        return new MiseAJour(enAttente.id(), UtilisateurUpdateDto.builder()
+                .email(b.getEmail() != null ? b.getEmail() : a.getEmail())
+                .nom(b.getNom() != null ? b.getNom() : a.getNom())
+                .prenom(b.getPrenom() != null ? b.getPrenom() : a.getPrenom())
+                .regimesIds(b.getRegimesIds() != null ? b.getRegimesIds() : a.getRegimesIds())
+                .allergenesIds(b.getAllergenesIds() != null ? b.getAllergenesIds() : a.getAllergenesIds())
+                .typesCuisinePreferesIds(b.getTypesCuisinePreferesIds() != null
+                        ? b.getTypesCuisinePreferesIds() : a.getTypesCuisinePreferesIds())
+                .build(), null, null, enAttente.principal());
+    }
+
+    private static String principalCourant() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+    /**
+     * Profil sur lequel appliquer la mise à jour : relu depuis ms-persistance, puis ETag vérifié localement.
+     * L'ETag est calculé par ce service et n'a pas de sens pour ms-persistance : il ne lui est pas transmis.
+     * Les écritures d'un même utilisateur étant sérialisées par WriteCoalescer, la vérification et l'écriture
+     * ne s'entrelacent pas avec une autre écriture de cette instance.
+     */
+    private UtilisateurResponseDto versionDeReference(Long id, String ifMatch) {
+        UtilisateurResponseDto courant = persistanceClient.getUtilisateurById(id);
+        if (!UtilisateurEtag.matches(ifMatch, UtilisateurEtag.of(courant))) {
+            log.warn("⚠️ Mise à jour refusée, version obsolète pour l'ID: {}", id);
+            throw new PreconditionFailedException("L'utilisateur a été modifié entre-temps");
+        }
+        return courant;
+    }
+
     @Override
     public void deleteUtilisateur(Long id) {
         log.info("🗑️ Suppression utilisateur - ID: {}", id);
         persistanceClient.deleteUtilisateur(id);
+        profileCache.invalidate(id);
         log.info("✅ Utilisateur supprimé avec succès - ID: {}", id);
     }
 
@@ -154,9 +460,21 @@ public class UtilisateurServiceImpl implements UtilisateurService {
     public void forgotPassword(String email) {
         log.info("🔑 Demande de réinitialisation de mot de passe pour: {}", email);
 
+        if (!emailFilter.mightContain(email)) {
+            // Même réponse silencieuse que pour un email inexistant, sans appel à ms-persistance
+            log.info("⚠️ Tentative de réinitialisation pour un email inexistant: {}", email);
+            return;
+        }
+
         try {
             // 1. Récupérer l'utilisateur par email
-            UtilisateurResponseDto utilisateur = persistanceClient.getUtilisateurByEmail(email);
+            Optional<UtilisateurResponseDto> trouve = persistanceClient.findUtilisateurByEmail(email);
+            if (trouve.isEmpty()) {
+                // Ne rien faire pour ne pas révéler si l'email existe
+                log.info("⚠️ Tentative de réinitialisation pour un email inexistant: {}", email);
+                return;
+            }
+            UtilisateurResponseDto utilisateur = trouve.get();
 
             // 2. Générer un token via ms-persistance
             String token = persistanceClient.generateResetToken(utilisateur.getId());
@@ -166,9 +484,8 @@ public class UtilisateurServiceImpl implements UtilisateurService {
 
             log.info("✅ Email de réinitialisation envoyé à: {}", email);
 
-        } catch (UtilisateurNotFoundException e) {
-            // Ne rien faire pour ne pas révéler si l'email existe
-            log.info("⚠️ Tentative de réinitialisation pour un email inexistant: {}", email);
+        } catch (PersistanceUnavailableException | DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("❌ Erreur lors de l'envoi de l'email de réinitialisation: {}", e.getMessage());
             throw new RuntimeException("Erreur lors de l'envoi de l'email de réinitialisation");
@@ -183,19 +500,28 @@ public class UtilisateurServiceImpl implements UtilisateurService {
         TokenValidationDto validation = persistanceClient.validateToken(token);
 
         if (!validation.getValid()) {
-            log.error("❌ Token invalide ou expiré");
-            throw new BadCredentialsException("Token invalide, expiré ou déjà utilisé");
+            log.warn("⚠️ Token invalide ou expiré");
+            throw new InvalidCredentialsException("Token invalide, expiré ou déjà utilisé");
         }
 
         // 2. Hasher le nouveau mot de passe
+        RequestDeadline.check("hachage du mot de passe");
         String hashedPassword = passwordEncoder.encode(newPassword);
 
-        // 3. Mettre à jour le mot de passe via ms-persistance
-        persistanceClient.updatePassword(validation.getUtilisateurId(), hashedPassword);
-
-        // 4. Marquer le token comme utilisé
+        // 3. Consommer le token avant toute modification : s'il ne peut pas être marqué (déjà utilisé,
+        // ms-persistance indisponible), le mot de passe reste inchangé et le token inutilisable deux fois
         persistanceClient.markTokenAsUsed(token);
 
+        // 4. Mettre à jour le mot de passe via ms-persistance
+        try {
+            persistanceClient.updatePassword(validation.getUtilisateurId(), hashedPassword);
+        } catch (RuntimeException e) {
+            log.error("❌ Token consommé mais mot de passe inchangé pour l'utilisateur ID: {} (nouvelle demande nécessaire)",
+                    validation.getUtilisateurId());
+            throw e;
+        }
+        profileCache.invalidate(validation.getUtilisateurId());
+
         log.info("✅ Mot de passe réinitialisé avec succès pour l'utilisateur ID: {}",
                 validation.getUtilisateurId());
     }
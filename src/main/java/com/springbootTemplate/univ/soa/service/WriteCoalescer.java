@@ -0,0 +1,201 @@
+package com.springbootTemplate.univ.soa.service;
+
+import com.springbootTemplate.univ.soa.client.RequestDeadline;
+import com.springbootTemplate.univ.soa.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * File d'écritures par clé : les écritures d'une même clé s'exécutent l'une après l'autre, jamais en parallèle.
+ * Une écriture qui arrive pendant qu'une autre est en cours rejoint le lot en attente si la fonction de fusion
+ * l'accepte (résultat non null) ; le lot part alors en une seule écriture et tous ses appelants reçoivent
+ * le même résultat (ou la même exception). Sinon elle forme un nouveau lot, exécuté après les précédents.
+ * Chaque lot est exécuté par le thread de l'appelant qui l'a créé ; les verrous sont répartis par bandes.
+ * Les attentes sont bornées par l'échéance de chaque appelant (RequestDeadline) : un lot dont le créateur
+ * abandonne avant son tour est retiré de la file sans être écrit ; un appelant fusionné qui abandonne reçoit
+ * DeadlineExceededException, l'écriture du lot pouvant encore aboutir.
+ */
+public class WriteCoalescer<K, C, R> {
+
+    private final Object[] verrous;
+    private final ConcurrentMap<K, File<C, R>> files = new ConcurrentHashMap<>();
+    private final BinaryOperator<C> fusion;
+    private final LongAdder ecritures = new LongAdder();
+    private final LongAdder fusionnees = new LongAdder();
+
+    private static final class Lot<C, R> {
+        private C changement;
+        private final Function<C, R> ecriture;
+        private final List<CompletableFuture<R>> appelants = new ArrayList<>();
+        private final CompletableFuture<Void> tour = new CompletableFuture<>();
+
+        private Lot(C changement, Function<C, R> ecriture) {
+            this.changement = changement;
+            this.ecriture = ecriture;
+        }
+    }
+
+    private static final class File<C, R> {
+        // Lots en attente uniquement : le lot en cours d'écriture n'y est plus et n'accepte plus de fusion
+        private final Deque<Lot<C, R>> lots = new ArrayDeque<>();
+        private boolean enCours;
+    }
+
+    public WriteCoalescer(int bandes, BinaryOperator<C> fusion) {
+        this.verrous = new Object[bandes];
+        for (int i = 0; i < bandes; i++) {
+            verrous[i] = new Object();
+        }
+        this.fusion = fusion;
+    }
+
+    public R submit(K key, C changement, Function<C, R> ecriture) {
+        CompletableFuture<R> resultat = new CompletableFuture<>();
+        Object verrou = verrou(key);
+        Lot<C, R> cree = null;
+
+        synchronized (verrou) {
+            File<C, R> file = files.computeIfAbsent(key, k -> new File<>());
+            Lot<C, R> dernier = file.lots.peekLast();
+            C fusionne = dernier != null ? fusion.apply(dernier.changement, changement) : null;
+            if (fusionne != null) {
+                dernier.changement = fusionne;
+                dernier.appelants.add(resultat);
+                fusionnees.increment();
+            } else {
+                cree = new Lot<>(changement, ecriture);
+                cree.appelants.add(resultat);
+                file.lots.addLast(cree);
+                if (!file.enCours) {
+                    file.enCours = true;
+                    cree.tour.complete(null);
+                }
+            }
+        }
+
+        if (cree != null) {
+            attendreSonTour(key, verrou, cree);
+            executer(key, verrou, cree);
+        }
+        return attendre(resultat);
+    }
+
+    /**
+     * Attendre la fin des lots précédents, au plus jusqu'à l'échéance de la requête.
+     * Si le tour n'est pas arrivé à temps, le lot est retiré de la file sans être écrit et tous ses appelants
+     * échouent ; le tour étant donné sous le même verrou, un tour arrivé entre-temps est toujours honoré.
+     */
+    private void attendreSonTour(K key, Object verrou, Lot<C, R> lot) {
+        RuntimeException abandon;
+        try {
+            lot.tour.get(Math.max(0, RequestDeadline.remainingMillis()), TimeUnit.MILLISECONDS);
+            return;
+        } catch (TimeoutException e) {
+            abandon = new DeadlineExceededException("Délai de la requête dépassé en attendant une écriture en cours");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon = new IllegalStateException("Attente d'une écriture interrompue", e);
+        } catch (ExecutionException e) {
+            abandon = new IllegalStateException(e.getCause());
+        }
+        synchronized (verrou) {
+            if (lot.tour.isDone()) {
+                return;
+            }
+            files.get(key).lots.remove(lot);
+        }
+        for (CompletableFuture<R> appelant : lot.appelants) {
+            appelant.completeExceptionally(abandon);
+        }
+        throw abandon;
+    }
+
+    public long writeCount() {
+        return ecritures.sum();
+    }
+
+    public long coalescedCount() {
+        return fusionnees.sum();
+    }
+
+    public void bindTo(MeterRegistry registry, String operation) {
+        FunctionCounter.builder("utilisateur.writes", ecritures, LongAdder::sum)
+                .tag("operation", operation)
+                .tag("role", "executed")
+                .description("Écritures réellement envoyées à ms-persistance")
+                .register(registry);
+        FunctionCounter.builder("utilisateur.writes", fusionnees, LongAdder::sum)
+                .tag("operation", operation)
+                .tag("role", "coalesced")
+                .description("Écritures fusionnées dans un lot en attente")
+                .register(registry);
+    }
+
+    private void executer(K key, Object verrou, Lot<C, R> lot) {
+        C changement;
+        synchronized (verrou) {
+            files.get(key).lots.remove(lot);
+            changement = lot.changement;
+        }
+        try {
+            ecritures.increment();
+            R resultat = lot.ecriture.apply(changement);
+            lot.appelants.forEach(appelant -> appelant.complete(resultat));
+        } catch (RuntimeException | Error e) {
+            lot.appelants.forEach(appelant -> appelant.completeExceptionally(e));
+        } finally {
+            passerLaMain(key, verrou);
+        }
+    }
+
+    private void passerLaMain(K key, Object verrou) {
+        synchronized (verrou) {
+            File<C, R> file = files.get(key);
+            Lot<C, R> suivant = file.lots.peekFirst();
+            if (suivant == null) {
+                file.enCours = false;
+                files.remove(key);
+            } else {
+                suivant.tour.complete(null);
+            }
+        }
+    }
+
+    private Object verrou(K key) {
+        return verrous[Math.floorMod(key.hashCode(), verrous.length)];
+    }
+
+    private static <R> R attendre(CompletableFuture<R> appel) {
+        try {
+            return appel.get(Math.max(0, RequestDeadline.remainingMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Délai de la requête dépassé en attendant une écriture fusionnée");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente d'une écriture interrompue", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.springbootTemplate.univ.soa.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegisteredEmailFilterTest {
+
+    private static List<String> emails(String prefixe, int n) {
+        return IntStream.range(0, n).mapToObj(i -> prefixe + i + "@univ.fr").toList();
+    }
+
+    @Test
+    void notReady_ShouldLetEverythingThrough() {
+        RegisteredEmailFilter filter = new RegisteredEmailFilter(1000, 0.01, true, 60_000);
+
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContain("inconnu@univ.fr"));
+    }
+
+    @Test
+    void incompleteOrStaleFilter_ShouldNeverAnswerNo() throws Exception {
+        RegisteredEmailFilter incomplet = new RegisteredEmailFilter(100, 0.01, false, 60_000);
+        incomplet.rebuild(() -> List.of("a@univ.fr"));
+        assertTrue(incomplet.isReady());
+        assertFalse(incomplet.isTrusted());
+        assertTrue(incomplet.mightContain("inscrit-ailleurs@univ.fr"));
+
+        RegisteredEmailFilter perime = new RegisteredEmailFilter(100, 0.01, true, 1);
+        perime.rebuild(() -> List.of("a@univ.fr"));
+        Thread.sleep(5);
+        assertFalse(perime.isTrusted());
+        assertTrue(perime.mightContain("inscrit-ailleurs@univ.fr"));
+    }
+
+    @Test
+    void rebuild_NoFalseNegativesAndFalsePositiveRateNearTarget() {
+        RegisteredEmailFilter filter = new RegisteredEmailFilter(10_000, 0.01, true, 60_000);
+        List<String> inscrits = emails("inscrit", 10_000);
+        filter.rebuild(() -> inscrits);
+
+        assertTrue(filter.isReady());
+        inscrits.forEach(email -> assertTrue(filter.mightContain(email.toUpperCase()), email));
+
+        long fauxPositifs = emails("inconnu", 10_000).stream().filter(filter::mightContain).count();
+        assertTrue(fauxPositifs < 200, "faux positifs: " + fauxPositifs);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+        // ~9,6 bits par email pour 1 %
+        assertTrue(filter.sizeInBytes() < 13_000, "taille: " + filter.sizeInBytes());
+    }
+
+    @Test
+    void add_ShouldBeVisibleImmediatelyAndSurviveConcurrentRebuild() {
+        RegisteredEmailFilter filter = new RegisteredEmailFilter(100, 0.01, true, 60_000);
+        filter.rebuild(() -> List.of("a@univ.fr"));
+        filter.add("nouveau@univ.fr");
+        assertTrue(filter.mightContain("nouveau@univ.fr"));
+
+        // Inscription pendant la lecture de la liste complète (qui ne la contient pas encore)
+        filter.rebuild(() -> {
+            filter.add("pendant@univ.fr");
+            return new ArrayList<>(List.of("a@univ.fr"));
+        });
+
+        assertTrue(filter.mightContain("pendant@univ.fr"));
+    }
+
+    @Test
+    void failedRebuild_ShouldKeepPreviousFilter() {
+        RegisteredEmailFilter filter = new RegisteredEmailFilter(100, 0.01, true, 60_000);
+        filter.rebuild(() -> List.of("a@univ.fr"));
+
+        assertThrows(IllegalStateException.class, () -> filter.rebuild(() -> {
+            throw new IllegalStateException("ms-persistance indisponible");
+        }));
+
+        assertTrue(filter.mightContain("a@univ.fr"));
+    }
+
+    @Test
+    void metrics_ShouldReportSizeFppAndNegatives() {
+        RegisteredEmailFilter filter = new RegisteredEmailFilter(100, 0.01, true, 60_000);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        filter.rebuild(() -> List.of("a@univ.fr"));
+        filter.mightContain("inconnu@univ.fr");
+
+        assertEquals(filter.sizeInBytes(), registry.get("utilisateur.email.filter.size").gauge().value());
+        assertEquals(1.0, registry.get("utilisateur.email.filter.negatives").functionCounter().count());
+        assertEquals(1, registry.get("utilisateur.email.filter.rebuild").timer().count());
+    }
+}
@@ -0,0 +1,104 @@
+package com.springbootTemplate.univ.soa.cache;
+
+import com.springbootTemplate.univ.soa.dto.UtilisateurResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UtilisateurProfileCacheTest {
+
+    private UtilisateurProfileCache cache;
+    private AtomicInteger appels;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UtilisateurProfileCache(100, Duration.ofMinutes(1));
+        appels = new AtomicInteger();
+    }
+
+    private UtilisateurResponseDto charger(Long id, String email) {
+        appels.incrementAndGet();
+        return UtilisateurResponseDto.builder().id(id).email(email).nom("Doe").build();
+    }
+
+    @Test
+    void getById_ShouldLoadOnceThenHit() {
+        cache.getById(1L, id -> charger(id, "a@univ.fr"));
+        cache.getById(1L, id -> charger(id, "a@univ.fr"));
+
+        assertEquals(1, appels.get());
+        assertEquals(1, cache.parIdCache().stats().hitCount());
+        assertEquals(1, cache.parIdCache().stats().missCount());
+    }
+
+    @Test
+    void getByEmail_ShouldIgnoreStaleIndexAfterEmailChange() {
+        cache.getByEmail("old@univ.fr", email -> charger(1L, email));
+        // Le profil 1 est rechargé avec un nouvel email : l'ancien index ne doit plus répondre
+        cache.invalidate(1L);
+        cache.put(UtilisateurResponseDto.builder().id(1L).email("new@univ.fr").build());
+
+        UtilisateurResponseDto result = cache.getByEmail("old@univ.fr", email -> charger(2L, email));
+
+        assertEquals(2L, result.getId());
+        assertEquals(2, appels.get());
+    }
+
+    @Test
+    void invalidateEmail_ShouldRemoveProfile() {
+        cache.getByEmail("a@univ.fr", email -> charger(1L, email));
+
+        cache.invalidateEmail("A@univ.fr");
+        cache.getById(1L, id -> charger(id, "a@univ.fr"));
+
+        assertEquals(2, appels.get());
+    }
+
+    @Test
+    void loaderException_ShouldNotBeCached() {
+        assertThrows(IllegalStateException.class, () -> cache.getById(1L, id -> {
+            throw new IllegalStateException("down");
+        }));
+
+        cache.getById(1L, id -> charger(id, "a@univ.fr"));
+        assertEquals(1, appels.get());
+    }
+
+    @Test
+    void maxSizeZero_ShouldDisableCaching() {
+        UtilisateurProfileCache disabled = new UtilisateurProfileCache(0, Duration.ofMinutes(1));
+
+        disabled.getById(1L, id -> charger(id, "a@univ.fr"));
+        disabled.parIdCache().cleanUp();
+        disabled.getById(1L, id -> charger(id, "a@univ.fr"));
+
+        assertEquals(2, appels.get());
+    }
+
+    @Test
+    void invalidateDuringLoad_ShouldNotCacheStaleProfile() {
+        cache.getById(1L, id -> {
+            // Écriture concurrente pendant l'appel distant
+            cache.invalidate(id);
+            return charger(id, "a@univ.fr");
+        });
+
+        assertNull(cache.getIfPresent(1L));
+        cache.getById(1L, id -> charger(id, "a@univ.fr"));
+        assertEquals(2, appels.get());
+        assertNotNull(cache.getIfPresent(1L));
+    }
+
+    @Test
+    void returnedProfile_ShouldBeACopy() {
+        UtilisateurResponseDto lu = cache.getById(1L, id -> charger(id, "a@univ.fr"));
+        lu.setNom("Modifié");
+
+        assertEquals("Doe", cache.getIfPresent(1L).getNom());
+        assertNotSame(cache.getIfPresent(1L), cache.getIfPresent(1L));
+    }
+}
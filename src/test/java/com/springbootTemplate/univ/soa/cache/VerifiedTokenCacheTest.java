@@ -0,0 +1,84 @@
+package com.springbootTemplate.univ.soa.cache;
+
+import com.springbootTemplate.univ.soa.security.JwtPrincipal;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private final AtomicLong horloge = new AtomicLong();
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(1_000_000, horloge::get);
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    private Function<String, Optional<JwtPrincipal>> verificateur(Duration validite) {
+        return token -> {
+            verifications.incrementAndGet();
+            return token.startsWith("valide")
+                    ? Optional.of(new JwtPrincipal(token + "@univ.fr", "USER", Instant.now().plus(validite), token, false))
+                    : Optional.empty();
+        };
+    }
+
+    @Test
+    void repeatedToken_ShouldBeVerifiedOnce() {
+        Function<String, Optional<JwtPrincipal>> verificateur = verificateur(Duration.ofHours(1));
+
+        JwtPrincipal premier = cache.get("valide.a", verificateur).orElseThrow();
+        JwtPrincipal second = cache.get("valide.a", verificateur).orElseThrow();
+
+        assertSame(premier, second);
+        assertEquals(1, verifications.get());
+        assertEquals(1, cache.cache().stats().hitCount());
+        assertTrue(cache.get("valide.b", verificateur).isPresent());
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void rejectedToken_ShouldNeverBeCached() {
+        Function<String, Optional<JwtPrincipal>> verificateur = verificateur(Duration.ofHours(1));
+
+        assertTrue(cache.get("invalide", verificateur).isEmpty());
+        assertTrue(cache.get("invalide", verificateur).isEmpty());
+
+        assertEquals(2, verifications.get());
+        assertEquals(0, cache.cache().estimatedSize());
+    }
+
+    @Test
+    void entry_ShouldExpireWithTheToken() {
+        Function<String, Optional<JwtPrincipal>> verificateur = verificateur(Duration.ofMinutes(5));
+        cache.get("valide.a", verificateur);
+
+        horloge.addAndGet(TimeUnit.MINUTES.toNanos(4));
+        cache.get("valide.a", verificateur);
+        assertEquals(1, verifications.get());
+
+        horloge.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        cache.get("valide.a", verificateur);
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void size_ShouldStayUnderTheByteCap() {
+        VerifiedTokenCache petit = new VerifiedTokenCache(10_000, horloge::get);
+        Function<String, Optional<JwtPrincipal>> verificateur = verificateur(Duration.ofHours(1));
+
+        for (int i = 0; i < 1_000; i++) {
+            petit.get("valide." + i, verificateur);
+        }
+        petit.cache().cleanUp();
+
+        assertTrue(petit.weightedSize() <= 10_000, "taille: " + petit.weightedSize());
+        assertTrue(petit.cache().estimatedSize() > 0);
+        assertTrue(petit.cache().estimatedSize() < 1_000);
+    }
+}
@@ -0,0 +1,104 @@
+package com.springbootTemplate.univ.soa.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionInterceptorTest {
+
+    private static final URI URL = URI.create("http://ms-persistance/api/persistance/utilisateurs");
+
+    @Test
+    void largeRequestBody_ShouldBeGzipped() throws Exception {
+        CompressionInterceptor interceptor = new CompressionInterceptor(true, 100, false);
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URL);
+        byte[] corps = "{\"nom\":\"Doe\"}".repeat(50).getBytes(StandardCharsets.UTF_8);
+        AtomicReference<byte[]> envoye = new AtomicReference<>();
+
+        interceptor.intercept(request, corps, (req, body) -> {
+            envoye.set(body);
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        });
+
+        assertEquals("gzip", request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(envoye.get().length < corps.length);
+        assertArrayEquals(corps, new GZIPInputStream(new ByteArrayInputStream(envoye.get())).readAllBytes());
+    }
+
+    @Test
+    void smallRequestBody_ShouldBeSentAsIs() throws Exception {
+        CompressionInterceptor interceptor = new CompressionInterceptor(true, 100, false);
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URL);
+        byte[] corps = "{}".getBytes(StandardCharsets.UTF_8);
+        AtomicReference<byte[]> envoye = new AtomicReference<>();
+
+        interceptor.intercept(request, corps, (req, body) -> {
+            envoye.set(body);
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        });
+
+        assertNull(request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertSame(corps, envoye.get());
+    }
+
+    @Test
+    void gzippedResponse_ShouldBeDecompressedWhenEnabled() throws Exception {
+        CompressionInterceptor interceptor = new CompressionInterceptor(false, 100, true);
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URL);
+        String json = "[{\"id\":1},{\"id\":2}]";
+        ByteArrayOutputStream compresse = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compresse)) {
+            gzip.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+
+        var response = interceptor.intercept(request, new byte[0], (req, body) -> {
+            MockClientHttpResponse reponse = new MockClientHttpResponse(compresse.toByteArray(), HttpStatus.OK);
+            reponse.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            reponse.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return reponse;
+        });
+
+        assertEquals("gzip", request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(json, StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void closingDecompressedResponse_ShouldCloseTheGzipStream() throws Exception {
+        CompressionInterceptor interceptor = new CompressionInterceptor(false, 100, true);
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URL);
+        ByteArrayOutputStream compresse = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compresse)) {
+            gzip.write("[{\"id\":1}]".getBytes(StandardCharsets.UTF_8));
+        }
+
+        var response = interceptor.intercept(request, new byte[0], (req, body) -> {
+            MockClientHttpResponse reponse = new MockClientHttpResponse(compresse.toByteArray(), HttpStatus.OK);
+            reponse.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return reponse;
+        });
+        InputStream corps = response.getBody();
+        assertEquals('[', corps.read());
+        response.close();
+
+        // Flux gzip (et son Inflater natif) fermé avec la réponse
+        assertThrows(IOException.class, corps::read);
+    }
+}
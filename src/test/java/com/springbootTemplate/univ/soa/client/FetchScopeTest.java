@@ -0,0 +1,120 @@
+package com.springbootTemplate.univ.soa.client;
+
+import com.springbootTemplate.univ.soa.exception.DeadlineExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FetchScopeTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    private static <T> T lent(long ms, T valeur) {
+        try {
+            Thread.sleep(ms);
+            return valeur;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("annulé", e);
+        }
+    }
+
+    @Test
+    void join_ShouldReturnAllResults() {
+        try (FetchScope scope = new FetchScope()) {
+            Supplier<String> a = scope.fork(() -> lent(10, "profil"));
+            Supplier<Integer> b = scope.fork(() -> lent(20, 42));
+            scope.join();
+
+            assertEquals("profil", a.get());
+            assertEquals(42, b.get());
+        }
+    }
+
+    @Test
+    void firstFailure_ShouldCancelTheOtherCalls() throws Exception {
+        CountDownLatch lentDemarre = new CountDownLatch(1);
+        AtomicBoolean interrompu = new AtomicBoolean();
+
+        try (FetchScope scope = new FetchScope()) {
+            scope.fork(() -> {
+                lentDemarre.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrompu.set(true);
+                }
+                return null;
+            });
+            scope.fork(() -> {
+                try {
+                    lentDemarre.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IllegalArgumentException("hash introuvable");
+            });
+
+            assertThrows(IllegalArgumentException.class, scope::join);
+        }
+        // close() attend la fin de tous les threads du scope
+        assertTrue(interrompu.get());
+    }
+
+    @Test
+    void deadline_ShouldBoundTheWaitAndPropagateToCalls() {
+        RequestDeadline.start(50);
+        AtomicBoolean echeanceVue = new AtomicBoolean();
+
+        try (FetchScope scope = new FetchScope()) {
+            scope.fork(() -> {
+                echeanceVue.set(RequestDeadline.isSet());
+                return lent(5_000, "trop tard");
+            });
+
+            long debut = System.nanoTime();
+            assertThrows(DeadlineExceededException.class, scope::join);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut) < 2_000);
+        }
+        assertTrue(echeanceVue.get());
+    }
+
+    @Test
+    void forks_ShouldRunConcurrently() {
+        // Chaque appel attend l'autre : des appels exécutés l'un après l'autre ne franchiraient jamais la barrière
+        CyclicBarrier lesDeuxEnCours = new CyclicBarrier(2);
+
+        try (FetchScope scope = new FetchScope()) {
+            Supplier<String> profil = scope.fork(() -> apresLAutre(lesDeuxEnCours, "profil"));
+            Supplier<String> hash = scope.fork(() -> apresLAutre(lesDeuxEnCours, "hash"));
+            scope.join();
+
+            assertEquals("profil", profil.get());
+            assertEquals("hash", hash.get());
+        }
+    }
+
+    private static <T> T apresLAutre(CyclicBarrier barriere, T valeur) {
+        try {
+            barriere.await(5, TimeUnit.SECONDS);
+            return valeur;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("annulé", e);
+        } catch (BrokenBarrierException | TimeoutException e) {
+            throw new IllegalStateException("les deux appels ne se sont pas chevauchés", e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.springbootTemplate.univ.soa.client;
+
+import com.springbootTemplate.univ.soa.dto.UtilisateurCreateDto;
+import com.springbootTemplate.univ.soa.exception.EmailAlreadyExistsException;
+import com.springbootTemplate.univ.soa.exception.UtilisateurNotFoundException;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class PersistanceClientTest {
+
+    private static final String URL = "http://persistance/api/persistance/utilisateurs";
+
+    private MockRestServiceServer server;
+    private PersistanceClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        PersistanceResilience resilience = new PersistanceResilience(
+                CircuitBreakerConfig.ofDefaults(),
+                BulkheadConfig.ofDefaults(),
+                1,
+                IntervalFunction.of(Duration.ofMillis(1)),
+                new RequestBudget(0.0, 0));
+        PersistanceHedging hedging = new PersistanceHedging(false, 95, 10, 500, new RequestBudget(0.0, 0));
+        client = new PersistanceClient(restTemplate, RestClient.builder(restTemplate).build(), resilience, hedging);
+        ReflectionTestUtils.setField(client, "persistanceServiceUrl", "http://persistance");
+    }
+
+    @Test
+    void findUtilisateurById_NotFound_ShouldReturnEmpty() {
+        server.expect(requestTo(URL + "/99")).andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        assertTrue(client.findUtilisateurById(99L).isEmpty());
+        server.verify();
+    }
+
+    @Test
+    void findUtilisateurByEmail_Found_ShouldReturnUser() {
+        server.expect(requestTo(URL + "/email/test@univ.fr"))
+                .andRespond(withSuccess("{\"id\":1,\"email\":\"test@univ.fr\"}", MediaType.APPLICATION_JSON));
+
+        assertEquals(1L, client.findUtilisateurByEmail("test@univ.fr").orElseThrow().getId());
+        server.verify();
+    }
+
+    @Test
+    void getUtilisateurById_NotFound_ShouldThrowStacklessException() {
+        server.expect(requestTo(URL + "/99")).andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        UtilisateurNotFoundException ex = assertThrows(UtilisateurNotFoundException.class,
+                () -> client.getUtilisateurById(99L));
+        assertEquals(0, ex.getStackTrace().length);
+    }
+
+    @Test
+    void findUtilisateurById_OtherClientError_ShouldStillThrow() {
+        server.expect(requestTo(URL + "/1")).andRespond(withStatus(HttpStatus.FORBIDDEN));
+
+        assertThrows(HttpClientErrorException.Forbidden.class, () -> client.findUtilisateurById(1L));
+    }
+
+    @Test
+    void createUtilisateur_Conflict_ShouldThrowEmailAlreadyExists() {
+        server.expect(requestTo(URL)).andExpect(method(HttpMethod.POST))
+                .andExpect(header("If-None-Match", "*"))
+                .andRespond(withStatus(HttpStatus.CONFLICT));
+
+        UtilisateurCreateDto createDto = UtilisateurCreateDto.builder().email("test@univ.fr").build();
+        assertThrows(EmailAlreadyExistsException.class, () -> client.createUtilisateur(createDto));
+        server.verify();
+    }
+
+    @Test
+    void patchUtilisateur_Native_ShouldSendMergePatchThenFallBackOn405() {
+        ReflectionTestUtils.setField(client, "patchNatifActive", true);
+        ObjectNode patch = JsonNodeFactory.instance.objectNode().put("nom", "Smith");
+        server.expect(requestTo(URL + "/1")).andExpect(method(HttpMethod.PATCH))
+                .andExpect(header("Content-Type", "application/merge-patch+json"))
+                .andExpect(content().json("{\"nom\":\"Smith\"}", true))
+                .andRespond(withSuccess("{\"id\":1,\"nom\":\"Smith\"}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo(URL + "/2")).andRespond(withStatus(HttpStatus.METHOD_NOT_ALLOWED));
+
+        assertEquals("Smith", client.patchUtilisateur(1L, patch).orElseThrow().getNom());
+        assertTrue(client.patchUtilisateur(2L, patch).isEmpty());
+        // Plus d'appel PATCH une fois l'absence de support constatée
+        assertTrue(client.patchUtilisateur(3L, patch).isEmpty());
+        server.verify();
+    }
+}
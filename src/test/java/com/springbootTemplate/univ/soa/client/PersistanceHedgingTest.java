@@ -0,0 +1,84 @@
+package com.springbootTemplate.univ.soa.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistanceHedgingTest {
+
+    private PersistanceHedging hedging;
+
+    @AfterEach
+    void tearDown() {
+        hedging.shutdown();
+    }
+
+    @Test
+    void slowFirstAttempt_ShouldBeHedgedAndCancelled() throws Exception {
+        hedging = new PersistanceHedging(true, 95, 10, 20, new RequestBudget(0.1, 5));
+        AtomicInteger tentatives = new AtomicInteger();
+        CountDownLatch premiereAnnulee = new CountDownLatch(1);
+
+        String result = hedging.execute(PersistanceOperation.READ, () -> {
+            if (tentatives.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException e) {
+                    premiereAnnulee.countDown();
+                    Thread.currentThread().interrupt();
+                }
+                return "lente";
+            }
+            return "rapide";
+        });
+
+        assertEquals("rapide", result);
+        assertEquals(1, hedging.hedgeCount());
+        assertEquals(1, hedging.hedgeWinCount());
+        assertTrue(premiereAnnulee.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void exhaustedBudget_ShouldWaitForFirstAttempt() {
+        hedging = new PersistanceHedging(true, 95, 1, 1, new RequestBudget(0.0, 0));
+        AtomicInteger tentatives = new AtomicInteger();
+
+        String result = hedging.execute(PersistanceOperation.AUTH, () -> {
+            tentatives.incrementAndGet();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(1, tentatives.get());
+        assertEquals(0, hedging.hedgeCount());
+        assertEquals(1, hedging.budgetRejectedCount());
+    }
+
+    @Test
+    void failure_ShouldPropagateOriginalException() {
+        hedging = new PersistanceHedging(true, 95, 10, 500, new RequestBudget(0.1, 5));
+
+        assertThrows(IllegalArgumentException.class, () -> hedging.execute(PersistanceOperation.READ, () -> {
+            throw new IllegalArgumentException("404");
+        }));
+        assertEquals(0, hedging.hedgeCount());
+    }
+
+    @Test
+    void disabled_ShouldCallDirectly() {
+        hedging = new PersistanceHedging(false, 95, 10, 500, new RequestBudget(0.1, 5));
+
+        assertEquals("ok", hedging.execute(PersistanceOperation.READ, () -> "ok"));
+        assertEquals(0, hedging.hedgeCount());
+    }
+}
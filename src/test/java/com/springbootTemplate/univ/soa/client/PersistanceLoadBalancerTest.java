@@ -0,0 +1,118 @@
+package com.springbootTemplate.univ.soa.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class PersistanceLoadBalancerTest {
+
+    private static final URI A = URI.create("http://10.0.0.1:8080");
+    private static final URI B = URI.create("http://10.0.0.2:8080");
+
+    @Test
+    void choose_ShouldPreferLeastOutstanding() {
+        PersistanceLoadBalancer lb = new PersistanceLoadBalancer(() -> List.of(A, B), 5, 30_000);
+        PersistanceLoadBalancer.Endpoint occupe = lb.endpoints().get(0);
+        occupe.start();
+        occupe.start();
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(B, lb.choose().uri());
+        }
+    }
+
+    @Test
+    void consecutiveFailures_ShouldEjectEndpoint() {
+        PersistanceLoadBalancer lb = new PersistanceLoadBalancer(() -> List.of(A, B), 2, 30_000);
+        PersistanceLoadBalancer.Endpoint defaillant = lb.endpoints().get(0);
+        for (int i = 0; i < 2; i++) {
+            defaillant.start();
+            defaillant.failure(1_000_000);
+        }
+
+        assertTrue(defaillant.isEjected());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(B, lb.choose().uri());
+        }
+    }
+
+    @Test
+    void failedFirstRefresh_ShouldFailAsTechnicalErrorUntilTheNextRefresh() {
+        AtomicBoolean dnsDisponible = new AtomicBoolean();
+        PersistanceLoadBalancer lb = new PersistanceLoadBalancer(() -> {
+            if (!dnsDisponible.get()) {
+                throw new IllegalStateException("Résolution impossible de ms-persistance");
+            }
+            return List.of(A);
+        }, 5, 30_000);
+
+        assertTrue(lb.endpoints().isEmpty());
+        assertThrows(ResourceAccessException.class, lb::choose);
+
+        dnsDisponible.set(true);
+        lb.refresh();
+        assertEquals(A, lb.choose().uri());
+    }
+
+    @Test
+    void allEjected_ShouldStillReturnAnEndpoint() {
+        PersistanceLoadBalancer lb = new PersistanceLoadBalancer(() -> List.of(A), 1, 30_000);
+        PersistanceLoadBalancer.Endpoint seul = lb.endpoints().get(0);
+        seul.start();
+        seul.failure(1_000_000);
+
+        assertEquals(A, lb.choose().uri());
+    }
+
+    @Test
+    void refresh_ShouldKeepStateOfRemainingEndpoints() {
+        List<URI> source = new ArrayList<>(List.of(A, B));
+        PersistanceLoadBalancer lb = new PersistanceLoadBalancer(() -> List.copyOf(source), 5, 30_000);
+        PersistanceLoadBalancer.Endpoint conserve = lb.endpoints().get(1);
+        conserve.start();
+
+        source.remove(A);
+        lb.refresh();
+
+        assertEquals(1, lb.endpoints().size());
+        assertSame(conserve, lb.endpoints().get(0));
+        assertEquals(1, conserve.outstanding());
+    }
+
+    @Test
+    void interceptor_ShouldRewriteHostAndRecordOutcome() {
+        PersistanceLoadBalancer lb = new PersistanceLoadBalancer(() -> List.of(B), 1, 30_000);
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        restTemplate.getInterceptors().add(new LoadBalancingInterceptor(lb));
+
+        server.expect(requestTo("http://10.0.0.2:8080/api/persistance/utilisateurs/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess());
+        server.expect(requestTo("http://10.0.0.2:8080/api/persistance/utilisateurs/2"))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        restTemplate.getForEntity("http://ms-persistance:8090/api/persistance/utilisateurs/1", Void.class);
+        assertThrows(Exception.class, () ->
+                restTemplate.getForEntity("http://ms-persistance:8090/api/persistance/utilisateurs/2", Void.class));
+
+        server.verify();
+        PersistanceLoadBalancer.Endpoint endpoint = lb.endpoints().get(0);
+        assertEquals(0, endpoint.outstanding());
+        assertTrue(endpoint.isEjected());
+    }
+}
@@ -0,0 +1,172 @@
+package com.springbootTemplate.univ.soa.client;
+
+import com.springbootTemplate.univ.soa.exception.PersistanceUnavailableException;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistanceResilienceTest {
+
+    private PersistanceResilience resilience;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        resilience = new PersistanceResilience(
+                CircuitBreakerConfig.custom()
+                        .slidingWindowSize(4)
+                        .minimumNumberOfCalls(4)
+                        .failureRateThreshold(50)
+                        .waitDurationInOpenState(Duration.ofMinutes(1))
+                        .build(),
+                BulkheadConfig.custom()
+                        .maxConcurrentCalls(1)
+                        .maxWaitDuration(Duration.ZERO)
+                        .build(),
+                3,
+                IntervalFunction.of(Duration.ofMillis(1)),
+                new RequestBudget(0.0, 2));
+        registry = new SimpleMeterRegistry();
+        resilience.bindTo(registry);
+    }
+
+    @Test
+    void technicalFailures_ShouldOpenCircuitAndFailFast() {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ResourceAccessException.class, () -> resilience.execute(PersistanceOperation.READ, () -> {
+                throw new ResourceAccessException("timeout");
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, resilience.state(PersistanceOperation.READ));
+        assertThrows(PersistanceUnavailableException.class,
+                () -> resilience.execute(PersistanceOperation.READ, () -> "jamais"));
+        // Les autres familles d'appels ne sont pas affectées
+        assertEquals("ok", resilience.execute(PersistanceOperation.AUTH, () -> "ok"));
+        assertEquals(1.0, registry.get("persistance.circuitbreaker.transitions")
+                .tag("name", "persistance-read").tag("to", "OPEN").counter().count());
+    }
+
+    @Test
+    void clientErrors_ShouldNotOpenCircuit() {
+        for (int i = 0; i < 8; i++) {
+            assertThrows(HttpClientErrorException.class, () -> resilience.execute(PersistanceOperation.READ, () -> {
+                throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.state(PersistanceOperation.READ));
+    }
+
+    @Test
+    void fullBulkhead_ShouldRejectImmediately() throws Exception {
+        CountDownLatch demarre = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> resilience.execute(PersistanceOperation.WRITE, () -> {
+                demarre.countDown();
+                try {
+                    return liberer.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }));
+            assertTrue(demarre.await(5, TimeUnit.SECONDS));
+
+            assertThrows(PersistanceUnavailableException.class,
+                    () -> resilience.execute(PersistanceOperation.WRITE, () -> "refusé"));
+        } finally {
+            liberer.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void idempotentCall_ShouldRetryTransientFailure() {
+        AtomicInteger tentatives = new AtomicInteger();
+
+        String result = resilience.executeIdempotent(PersistanceOperation.AUTH, () -> {
+            if (tentatives.incrementAndGet() == 1) {
+                throw new ResourceAccessException("Connection reset");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(2, tentatives.get());
+    }
+
+    @Test
+    void retry_ShouldWrapTheWholeProtectedAttempt() {
+        AtomicInteger tentatives = new AtomicInteger();
+        AtomicInteger appels = new AtomicInteger();
+
+        String result = resilience.retry(PersistanceOperation.READ, () -> {
+            tentatives.incrementAndGet();
+            return resilience.execute(PersistanceOperation.READ, () -> {
+                if (appels.incrementAndGet() < 3) {
+                    throw new ResourceAccessException("Connection reset");
+                }
+                return "ok";
+            });
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, tentatives.get());
+        assertEquals(3, appels.get());
+        assertEquals(2.0, registry.get("persistance.retry.calls")
+                .tag("operation", "persistance-read").functionCounter().count());
+    }
+
+    @Test
+    void idempotentCall_ShouldNotRetryClientErrors() {
+        AtomicInteger tentatives = new AtomicInteger();
+
+        assertThrows(HttpClientErrorException.class, () -> resilience.executeIdempotent(PersistanceOperation.READ, () -> {
+            tentatives.incrementAndGet();
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+        }));
+
+        assertEquals(1, tentatives.get());
+    }
+
+    @Test
+    void exhaustedRetryBudget_ShouldStopRetrying() {
+        AtomicInteger tentatives = new AtomicInteger();
+
+        // Budget de 2 jetons sans réapprovisionnement : 3 tentatives, puis 1 seule
+        assertThrows(ResourceAccessException.class, () -> resilience.executeIdempotent(PersistanceOperation.READ, () -> {
+            tentatives.incrementAndGet();
+            throw new ResourceAccessException("timeout");
+        }));
+        assertThrows(ResourceAccessException.class, () -> resilience.executeIdempotent(PersistanceOperation.READ, () -> {
+            tentatives.incrementAndGet();
+            throw new ResourceAccessException("timeout");
+        }));
+
+        assertEquals(4, tentatives.get());
+        assertEquals(1, resilience.retryBudgetRejectedCount(PersistanceOperation.READ));
+        assertEquals(1.0, registry.get("persistance.retry.budget.exhausted")
+                .tag("operation", "persistance-read").functionCounter().count());
+        assertEquals(2.0, registry.get("persistance.retry.calls")
+                .tag("operation", "persistance-read").functionCounter().count());
+    }
+}
@@ -0,0 +1,35 @@
+package com.springbootTemplate.univ.soa.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestBudgetTest {
+
+    @Test
+    void tryAcquire_ShouldBeCappedByBurstThenRefillWithTraffic() {
+        RequestBudget budget = new RequestBudget(0.1, 2);
+
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+
+        // 10 requêtes normales à 10% redonnent un jeton
+        for (int i = 0; i < 10; i++) {
+            budget.deposit();
+        }
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    void deposit_ShouldNotExceedBurst() {
+        RequestBudget budget = new RequestBudget(1.0, 3);
+
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+
+        assertEquals(3.0, budget.available());
+    }
+}
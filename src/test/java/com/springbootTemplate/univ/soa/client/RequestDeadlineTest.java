@@ -0,0 +1,46 @@
+package com.springbootTemplate.univ.soa.client;
+
+import com.springbootTemplate.univ.soa.exception.DeadlineExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestDeadlineTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void withoutDeadline_ShouldNeverExpire() {
+        assertFalse(RequestDeadline.isSet());
+        assertEquals(Long.MAX_VALUE, RequestDeadline.remainingMillis());
+        assertDoesNotThrow(() -> RequestDeadline.check("appel"));
+    }
+
+    @Test
+    void expiredDeadline_ShouldFailCheck() {
+        RequestDeadline.start(0);
+
+        assertTrue(RequestDeadline.isExpired());
+        assertThrows(DeadlineExceededException.class, () -> RequestDeadline.check("appel"));
+    }
+
+    @Test
+    void propagate_ShouldCarryDeadlineToOtherThread() throws Exception {
+        RequestDeadline.start(60_000);
+        Supplier<Long> restant = RequestDeadline.propagate(RequestDeadline::remainingMillis);
+
+        long restantAilleurs = CompletableFuture.supplyAsync(restant).get(5, TimeUnit.SECONDS);
+        boolean poseAilleurs = CompletableFuture.supplyAsync(RequestDeadline::isSet).get(5, TimeUnit.SECONDS);
+
+        assertTrue(restantAilleurs > 0 && restantAilleurs <= 60_000);
+        assertFalse(poseAilleurs);
+    }
+}
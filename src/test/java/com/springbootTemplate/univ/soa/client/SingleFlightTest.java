@@ -0,0 +1,155 @@
+package com.springbootTemplate.univ.soa.client;
+
+import com.springbootTemplate.univ.soa.exception.DeadlineExceededException;
+import com.springbootTemplate.univ.soa.exception.PersistanceUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallsForSameKey_ShouldShareOneCall() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        AtomicInteger appels = new AtomicInteger();
+        CountDownLatch leaderDemarre = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute(1L, 5_000, () -> {
+                appels.incrementAndGet();
+                leaderDemarre.countDown();
+                await(liberer);
+                return "profil-1";
+            }));
+            assertTrue(leaderDemarre.await(5, TimeUnit.SECONDS));
+
+            List<Future<String>> suiveurs = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                suiveurs.add(executor.submit(() -> singleFlight.execute(1L, 5_000, () -> {
+                    appels.incrementAndGet();
+                    return "autre";
+                })));
+            }
+            // Laisser les suiveurs se mettre en attente sur l'appel du leader
+            while (singleFlight.coalescedCount() < 3) {
+                Thread.onSpinWait();
+            }
+            liberer.countDown();
+
+            assertEquals("profil-1", leader.get(5, TimeUnit.SECONDS));
+            for (Future<String> suiveur : suiveurs) {
+                assertEquals("profil-1", suiveur.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, appels.get());
+            assertEquals(1, singleFlight.leaderCount());
+            assertEquals(3, singleFlight.coalescedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void leaderFailure_ShouldBeSharedAndKeyReleased() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        CountDownLatch leaderDemarre = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute(1L, 5_000, () -> {
+                leaderDemarre.countDown();
+                await(liberer);
+                throw new IllegalStateException("ms-persistance indisponible");
+            }));
+            assertTrue(leaderDemarre.await(5, TimeUnit.SECONDS));
+            Future<String> suiveur = executor.submit(() -> singleFlight.execute(1L, 5_000, () -> "jamais"));
+            while (singleFlight.coalescedCount() < 1) {
+                Thread.onSpinWait();
+            }
+            liberer.countDown();
+
+            Exception leaderEx = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception suiveurEx = assertThrows(Exception.class, () -> suiveur.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, leaderEx.getCause());
+            assertInstanceOf(IllegalStateException.class, suiveurEx.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // La clé est libérée : un nouvel appel repart vers le serveur
+        assertEquals("ok", singleFlight.execute(1L, 5_000, () -> "ok"));
+    }
+
+    @Test
+    void stuckLeader_ShouldNotBlockFollowerBeyondMaxWait() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        CountDownLatch leaderDemarre = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute(1L, 5_000, () -> {
+                leaderDemarre.countDown();
+                await(liberer);
+                return "profil-1";
+            }));
+            assertTrue(leaderDemarre.await(5, TimeUnit.SECONDS));
+
+            assertThrows(PersistanceUnavailableException.class,
+                    () -> singleFlight.execute(1L, 50, () -> "jamais"));
+
+            // Le leader n'est pas interrompu par l'abandon du suiveur
+            liberer.countDown();
+            assertEquals("profil-1", leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void follower_ShouldGiveUpAtItsOwnDeadline() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        CountDownLatch leaderDemarre = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> singleFlight.execute(1L, 5_000, () -> {
+                leaderDemarre.countDown();
+                await(liberer);
+                return "profil-1";
+            }));
+            assertTrue(leaderDemarre.await(5, TimeUnit.SECONDS));
+
+            RequestDeadline.start(50);
+            try {
+                assertThrows(DeadlineExceededException.class,
+                        () -> singleFlight.execute(1L, 5_000, () -> "jamais"));
+            } finally {
+                RequestDeadline.clear();
+            }
+            liberer.countDown();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
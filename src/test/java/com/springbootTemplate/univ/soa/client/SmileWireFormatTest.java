@@ -0,0 +1,108 @@
+package com.springbootTemplate.univ.soa.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springbootTemplate.univ.soa.dto.UtilisateurCreateDto;
+import com.springbootTemplate.univ.soa.dto.UtilisateurResponseDto;
+import com.springbootTemplate.univ.soa.model.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class SmileWireFormatTest {
+
+    private static final String URL = "http://ms-persistance/api/persistance/utilisateurs";
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper smile = Jackson2ObjectMapperBuilder.smile().build();
+
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = new RestTemplate();
+        restTemplate.getMessageConverters().add(0, new SmileResponseConverter());
+        restTemplate.getInterceptors().add(new SmilePreferenceInterceptor());
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    void get_ShouldPreferSmileAndDecodeIt() throws Exception {
+        UtilisateurResponseDto utilisateur = utilisateur(1);
+        server.expect(requestTo(URL + "/1"))
+                .andExpect(header(HttpHeaders.ACCEPT, startsWith("application/x-jackson-smile, ")))
+                .andRespond(withSuccess(smile.writeValueAsBytes(utilisateur), SmileResponseConverter.APPLICATION_SMILE));
+
+        UtilisateurResponseDto result = restTemplate.getForObject(URL + "/1", UtilisateurResponseDto.class);
+
+        assertEquals(utilisateur, result);
+        server.verify();
+    }
+
+    @Test
+    void get_ShouldFallBackToJson() throws Exception {
+        UtilisateurResponseDto utilisateur = utilisateur(2);
+        server.expect(requestTo(URL + "/2"))
+                .andRespond(withSuccess(json.writeValueAsString(utilisateur), MediaType.APPLICATION_JSON));
+
+        assertEquals(utilisateur, restTemplate.getForObject(URL + "/2", UtilisateurResponseDto.class));
+    }
+
+    @Test
+    void post_ShouldStillSendJson() {
+        server.expect(requestTo(URL))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andRespond(withSuccess("{\"id\":3}", MediaType.APPLICATION_JSON));
+
+        UtilisateurCreateDto createDto = UtilisateurCreateDto.builder().email("a@univ.fr").build();
+        restTemplate.postForObject(URL, createDto, UtilisateurResponseDto.class);
+
+        server.verify();
+    }
+
+    @Test
+    void smileList_ShouldBeSmallerThanJsonAndRoundTrip() throws Exception {
+        List<UtilisateurResponseDto> utilisateurs = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            utilisateurs.add(utilisateur(i));
+        }
+        byte[] enJson = json.writeValueAsBytes(utilisateurs);
+        byte[] enSmile = smile.writeValueAsBytes(utilisateurs);
+
+        assertTrue(enSmile.length < enJson.length);
+        assertEquals(utilisateurs, smile.readValue(enSmile, new TypeReference<List<UtilisateurResponseDto>>() {}));
+    }
+
+    private static UtilisateurResponseDto utilisateur(int i) {
+        return UtilisateurResponseDto.builder()
+                .id((long) i)
+                .email("utilisateur" + i + "@univ.fr")
+                .nom("Nom" + i)
+                .prenom("Prenom" + i)
+                .role(Role.USER)
+                .actif(true)
+                .regimesIds(Set.of(1L, 2L, 3L))
+                .allergenesIds(Set.of(10L, 11L))
+                .typesCuisinePreferesIds(Set.of(100L, 101L, 102L, 103L))
+                .dateCreation(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(i))
+                .dateModification(LocalDateTime.of(2024, 6, 1, 8, 30).plusSeconds(i))
+                .build();
+    }
+}
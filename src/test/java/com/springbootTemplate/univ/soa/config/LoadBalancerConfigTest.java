@@ -0,0 +1,40 @@
+package com.springbootTemplate.univ.soa.config;
+
+import com.springbootTemplate.univ.soa.client.PersistanceLoadBalancer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class LoadBalancerConfigTest {
+
+    @SuppressWarnings("unchecked")
+    private static LoadBalancerConfig config(String url, String endpoints) {
+        LoadBalancerConfig config = new LoadBalancerConfig(mock(ObjectProvider.class));
+        ReflectionTestUtils.setField(config, "persistanceServiceUrl", url);
+        ReflectionTestUtils.setField(config, "endpoints", endpoints);
+        ReflectionTestUtils.setField(config, "dnsName", "");
+        ReflectionTestUtils.setField(config, "consecutiveFailures", 5);
+        ReflectionTestUtils.setField(config, "ejectionDurationMs", 30_000L);
+        return config;
+    }
+
+    @Test
+    void dnsMode_ShouldBeRefusedForHttps() {
+        assertThrows(IllegalStateException.class,
+                () -> config("https://ms-persistance.univ.fr", "").persistanceLoadBalancer());
+    }
+
+    @Test
+    void fixedEndpoints_ShouldKeepTheirHostnamesForHttps() {
+        PersistanceLoadBalancer lb = config("https://ms-persistance.univ.fr",
+                "https://persistance-0.univ.fr, https://persistance-1.univ.fr").persistanceLoadBalancer();
+
+        assertEquals(URI.create("https://persistance-0.univ.fr"), lb.endpoints().get(0).uri());
+        assertEquals(2, lb.endpoints().size());
+    }
+}
@@ -0,0 +1,65 @@
+package com.springbootTemplate.univ.soa.config;
+
+import com.springbootTemplate.univ.soa.client.RequestDeadline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestDeadlineFilterTest {
+
+    private RequestDeadlineFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RequestDeadlineFilter();
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "defaultMs", 5_000L);
+        ReflectionTestUtils.setField(filter, "loginMs", 3_000L);
+        ReflectionTestUtils.setField(filter, "batchMs", 8_000L);
+    }
+
+    private long budgetVu(MockHttpServletRequest request) throws Exception {
+        AtomicLong restant = new AtomicLong(-1);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> restant.set(RequestDeadline.remainingMillis()));
+        return restant.get();
+    }
+
+    @Test
+    void budget_ShouldDependOnRoute() throws Exception {
+        long login = budgetVu(new MockHttpServletRequest("POST", "/api/utilisateurs/login"));
+        long batch = budgetVu(new MockHttpServletRequest("POST", "/api/utilisateurs/batch"));
+        long defaut = budgetVu(new MockHttpServletRequest("GET", "/api/utilisateurs/1"));
+
+        assertTrue(login > 2_900 && login <= 3_000, "login: " + login);
+        assertTrue(batch > 7_900 && batch <= 8_000, "batch: " + batch);
+        assertTrue(defaut > 4_900 && defaut <= 5_000, "défaut: " + defaut);
+    }
+
+    @Test
+    void shorterCallerBudget_ShouldWin_AndLongerOrInvalidOneBeIgnored() throws Exception {
+        MockHttpServletRequest court = new MockHttpServletRequest("GET", "/api/utilisateurs/1");
+        court.addHeader(RequestDeadline.HEADER, "200");
+        MockHttpServletRequest tropLong = new MockHttpServletRequest("GET", "/api/utilisateurs/1");
+        tropLong.addHeader(RequestDeadline.HEADER, "60000");
+        MockHttpServletRequest invalide = new MockHttpServletRequest("GET", "/api/utilisateurs/1");
+        invalide.addHeader(RequestDeadline.HEADER, "abc");
+
+        assertTrue(budgetVu(court) <= 200);
+        assertTrue(budgetVu(tropLong) <= 5_000);
+        assertTrue(budgetVu(invalide) <= 5_000);
+    }
+
+    @Test
+    void deadline_ShouldBeClearedAfterRequest_AndSkippedOutsideApi() throws Exception {
+        budgetVu(new MockHttpServletRequest("GET", "/api/utilisateurs/1"));
+        assertFalse(RequestDeadline.isSet());
+
+        assertEquals(Long.MAX_VALUE, budgetVu(new MockHttpServletRequest("GET", "/.well-known/jwks.json")));
+    }
+}
@@ -0,0 +1,101 @@
+package com.springbootTemplate.univ.soa.config;
+
+import com.springbootTemplate.univ.soa.exception.GlobalExceptionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class RequestDecompressionFilterTest {
+
+    private MockMvc mockMvc;
+
+    @RestController
+    static class EchoController {
+        @PostMapping("/echo")
+        public Map<String, Object> echo(@RequestBody Map<String, Object> corps) {
+            return corps;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        RequestDecompressionFilter filter = new RequestDecompressionFilter();
+        ReflectionTestUtils.setField(filter, "maxBytes", 1_024L);
+        mockMvc = MockMvcBuilders.standaloneSetup(new EchoController())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addFilters(filter)
+                .build();
+    }
+
+    private static byte[] gzip(String contenu) throws Exception {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(sortie)) {
+            gzip.write(contenu.getBytes(StandardCharsets.UTF_8));
+        }
+        return sortie.toByteArray();
+    }
+
+    @Test
+    void gzipBody_ShouldBeDecompressedBeforeTheController() throws Exception {
+        mockMvc.perform(post("/echo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(gzip("{\"nom\":\"Doe\"}")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nom").value("Doe"));
+    }
+
+    @Test
+    void plainBody_ShouldPassThroughUntouched() throws Exception {
+        mockMvc.perform(post("/echo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nom\":\"Doe\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nom").value("Doe"));
+    }
+
+    @Test
+    void bodyOverTheCapOnceDecompressed_ShouldReturn413() throws Exception {
+        String volumineux = "{\"nom\":\"" + "a".repeat(10_000) + "\"}";
+
+        mockMvc.perform(post("/echo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(gzip(volumineux)))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.status").value(413));
+    }
+
+    @Test
+    void notActuallyGzip_ShouldNotReturn500() throws Exception {
+        mockMvc.perform(post("/echo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content("{\"nom\":\"Doe\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void unknownEncoding_ShouldReturn415() throws Exception {
+        mockMvc.perform(post("/echo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "br")
+                        .content("{\"nom\":\"Doe\"}"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
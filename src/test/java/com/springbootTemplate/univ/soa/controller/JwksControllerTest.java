@@ -0,0 +1,42 @@
+package com.springbootTemplate.univ.soa.controller;
+
+import com.springbootTemplate.univ.soa.security.JwtAuthenticationFilter;
+import com.springbootTemplate.univ.soa.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(JwksController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class JwksControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Test
+    void jwks_ShouldReturnPublicKeysWithCacheHeaders() throws Exception {
+        when(jwtUtil.publicJwks()).thenReturn(List.of(Map.of("kty", "EC", "kid", "cle-1", "alg", "ES256")));
+
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=3600, public"))
+                .andExpect(jsonPath("$.keys[0].kid").value("cle-1"))
+                .andExpect(jsonPath("$.keys[0].alg").value("ES256"));
+    }
+}
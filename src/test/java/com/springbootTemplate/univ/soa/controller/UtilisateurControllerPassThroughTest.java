@@ -0,0 +1,84 @@
+package com.springbootTemplate.univ.soa.controller;
+
+import com.springbootTemplate.univ.soa.exception.UtilisateurNotFoundException;
+import com.springbootTemplate.univ.soa.security.JwtAuthenticationFilter;
+import com.springbootTemplate.univ.soa.security.JwtUtil;
+import com.springbootTemplate.univ.soa.service.UtilisateurService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UtilisateurController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@TestPropertySource(properties = "utilisateur.read.pass-through=true")
+class UtilisateurControllerPassThroughTest {
+
+    private static final String PERSISTANCE_JSON = "{\"id\":1,\"email\":\"test@univ.fr\",\"nom\":\"Doe\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UtilisateurService utilisateurService;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Test
+    void getUtilisateurById_ShouldCopyPersistanceBytes() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(PERSISTANCE_JSON.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(utilisateurService).streamUtilisateurById(eq(1L), any(OutputStream.class));
+
+        mockMvc.perform(get("/api/utilisateurs/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(PERSISTANCE_JSON));
+
+        verify(utilisateurService, never()).getUtilisateurById(any());
+    }
+
+    @Test
+    void getUtilisateurById_ShouldNotSupportConditionalReads() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(PERSISTANCE_JSON.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(utilisateurService).streamUtilisateurById(eq(1L), any(OutputStream.class));
+
+        // Mode pass-through : ni ETag ni 304, le corps est toujours renvoyé
+        mockMvc.perform(get("/api/utilisateurs/{id}", 1L).header("If-None-Match", "*"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(content().string(PERSISTANCE_JSON));
+    }
+
+    @Test
+    void getUtilisateurByEmail_NotFound_ShouldReturn404() throws Exception {
+        doThrow(new UtilisateurNotFoundException("Utilisateur non trouvé avec l'email: x@univ.fr"))
+                .when(utilisateurService).streamUtilisateurByEmail(eq("x@univ.fr"), any(OutputStream.class));
+
+        mockMvc.perform(get("/api/utilisateurs/email/{email}", "x@univ.fr"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404));
+    }
+}
@@ -5,6 +5,8 @@ import com.springbootTemplate.univ.soa.dto.*;
 import com.springbootTemplate.univ.soa.model.Role;
 import com.springbootTemplate.univ.soa.security.JwtAuthenticationFilter;
 import com.springbootTemplate.univ.soa.security.JwtUtil;
+import com.springbootTemplate.univ.soa.service.UtilisateurEtag;
+import com.springbootTemplate.univ.soa.service.UtilisateurMergePatch;
 import com.springbootTemplate.univ.soa.service.UtilisateurService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,6 +23,7 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -87,13 +90,41 @@ class UtilisateurControllerTest {
     @Test
     void login_ShouldReturnToken() throws Exception {
         String fakeToken = "eyJhbGciOiJIUzI1NiJ9.test.XYZ";
-        when(utilisateurService.login(any(LoginDto.class))).thenReturn(fakeToken);
+        when(utilisateurService.login(any(LoginDto.class))).thenReturn(TokenResponseDto.builder()
+                .token(fakeToken).type("Bearer").refreshToken("refresh").expiresIn(900L).build());
 
         mockMvc.perform(post("/api/utilisateurs/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginDto)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.token").value(fakeToken));
+                .andExpect(jsonPath("$.token").value(fakeToken))
+                .andExpect(jsonPath("$.type").value("Bearer"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh"))
+                .andExpect(jsonPath("$.expiresIn").value(900));
+    }
+
+    @Test
+    void refresh_ShouldReturnNewTokens() throws Exception {
+        when(utilisateurService.refresh("refresh")).thenReturn(TokenResponseDto.builder()
+                .token("nouveau").type("Bearer").refreshToken("nouveau-refresh").expiresIn(900L).build());
+
+        mockMvc.perform(post("/api/utilisateurs/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"refresh\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("nouveau"))
+                .andExpect(jsonPath("$.refreshToken").value("nouveau-refresh"));
+    }
+
+    @Test
+    void logout_ShouldRevokeBearerAndRefreshTokens() throws Exception {
+        mockMvc.perform(post("/api/utilisateurs/logout")
+                        .header("Authorization", "Bearer acces")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"refresh\"}"))
+                .andExpect(status().isNoContent());
+
+        verify(utilisateurService).logout("acces", "refresh");
     }
 
     @Test
@@ -105,6 +136,38 @@ class UtilisateurControllerTest {
                 .andExpect(jsonPath("$.nom").value("Doe"));
     }
 
+    @Test
+    void getUtilisateurById_ShouldReturnEtag() throws Exception {
+        when(utilisateurService.getUtilisateurById(1L)).thenReturn(utilisateurResponse);
+
+        mockMvc.perform(get("/api/utilisateurs/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", UtilisateurEtag.of(utilisateurResponse)))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+    }
+
+    @Test
+    void getUtilisateurByEmail_IfNoneMatchCurrent_ShouldReturnNotModified() throws Exception {
+        when(utilisateurService.getUtilisateurByEmail("test@univ.fr")).thenReturn(utilisateurResponse);
+        String etag = UtilisateurEtag.of(utilisateurResponse);
+
+        mockMvc.perform(get("/api/utilisateurs/email/{email}", "test@univ.fr")
+                        .header("If-None-Match", "W/" + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getUtilisateurById_IfNoneMatchStale_ShouldReturnBody() throws Exception {
+        when(utilisateurService.getUtilisateurById(1L)).thenReturn(utilisateurResponse);
+
+        mockMvc.perform(get("/api/utilisateurs/{id}", 1L)
+                        .header("If-None-Match", "\"ancienne-version\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nom").value("Doe"));
+    }
+
     @Test
     void getAllUtilisateurs_ShouldReturnList() throws Exception {
         List<UtilisateurResponseDto> list = Collections.singletonList(utilisateurResponse);
@@ -115,20 +178,87 @@ class UtilisateurControllerTest {
                 .andExpect(jsonPath("$.size()").value(1));
     }
 
+    @Test
+    void getUtilisateursBatch_ShouldReturnPartialResults() throws Exception {
+        UtilisateurBatchRequestDto batchDto = UtilisateurBatchRequestDto.builder().ids(List.of(1L, 2L)).build();
+        when(utilisateurService.getUtilisateursBatch(any(UtilisateurBatchRequestDto.class))).thenReturn(List.of(
+                UtilisateurBatchItemDto.builder().id(1L).trouve(true).utilisateur(utilisateurResponse).build(),
+                UtilisateurBatchItemDto.builder().id(2L).trouve(false).build()
+        ));
+
+        mockMvc.perform(post("/api/utilisateurs/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].trouve").value(true))
+                .andExpect(jsonPath("$[0].utilisateur.nom").value("Doe"))
+                .andExpect(jsonPath("$[1].trouve").value(false))
+                .andExpect(jsonPath("$[1].utilisateur").doesNotExist());
+    }
+
+    @Test
+    void getUtilisateursBatch_InvalidEmail_ShouldReturnBadRequest() throws Exception {
+        UtilisateurBatchRequestDto batchDto = UtilisateurBatchRequestDto.builder()
+                .emails(List.of("pas-un-email"))
+                .build();
+
+        mockMvc.perform(post("/api/utilisateurs/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchDto)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void updateUtilisateur_ShouldReturnUpdatedUser() throws Exception {
         UtilisateurUpdateDto updateDto = UtilisateurUpdateDto.builder().nom("Smith").build();
         UtilisateurResponseDto updatedResponse = UtilisateurResponseDto.builder().id(1L).nom("Smith").build();
 
-        when(utilisateurService.updateUtilisateur(eq(1L), any(UtilisateurUpdateDto.class))).thenReturn(updatedResponse);
+        when(utilisateurService.updateUtilisateur(eq(1L), any(UtilisateurUpdateDto.class), isNull())).thenReturn(updatedResponse);
 
         mockMvc.perform(put("/api/utilisateurs/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(updateDto)))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", UtilisateurEtag.of(updatedResponse)))
                 .andExpect(jsonPath("$.nom").value("Smith"));
     }
 
+    @Test
+    void updateUtilisateur_WithIfMatch_ShouldForwardVersion() throws Exception {
+        UtilisateurUpdateDto updateDto = UtilisateurUpdateDto.builder().nom("Smith").build();
+        when(utilisateurService.updateUtilisateur(eq(1L), any(UtilisateurUpdateDto.class), eq("\"abc\"")))
+                .thenReturn(utilisateurResponse);
+
+        mockMvc.perform(put("/api/utilisateurs/{id}", 1L)
+                        .header("If-Match", "\"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void patchUtilisateur_MergePatch_ShouldReturnUpdatedUser() throws Exception {
+        when(utilisateurService.patchUtilisateur(eq(1L), any(UtilisateurMergePatch.class), isNull()))
+                .thenReturn(utilisateurResponse);
+
+        mockMvc.perform(patch("/api/utilisateurs/{id}", 1L)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"allergenesIds\": {\"7\": true, \"3\": null}}"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.nom").value("Doe"));
+    }
+
+    @Test
+    void patchUtilisateur_ForbiddenField_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(patch("/api/utilisateurs/{id}", 1L)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"role\": \"ADMIN\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(utilisateurService, never()).patchUtilisateur(any(), any(), any());
+    }
+
     @Test
     void deleteUtilisateur_ShouldReturnSuccessMessage() throws Exception {
         doNothing().when(utilisateurService).deleteUtilisateur(1L);
@@ -22,4 +22,13 @@ class CustomExceptionsTest {
         assertEquals(msg, ex.getMessage());
         assertTrue(ex instanceof RuntimeException);
     }
-}
\ No newline at end of file
+
+    @Test
+    void persistanceUnavailableException_ShouldStoreMessageAndCause() {
+        IllegalStateException cause = new IllegalStateException("circuit ouvert");
+        PersistanceUnavailableException ex = new PersistanceUnavailableException("Indisponible", cause);
+
+        assertEquals("Indisponible", ex.getMessage());
+        assertSame(cause, ex.getCause());
+    }
+}
@@ -68,6 +68,21 @@ class GlobalExceptionHandlerTest {
             throw new AccessDeniedException("Accès interdit");
         }
 
+        @GetMapping("/test/persistance-unavailable")
+        public void throwPersistanceUnavailable() {
+            throw new PersistanceUnavailableException("Circuit ouvert", null);
+        }
+
+        @GetMapping("/test/deadline-exceeded")
+        public void throwDeadlineExceeded() {
+            throw new DeadlineExceededException("Délai dépassé");
+        }
+
+        @GetMapping("/test/precondition-failed")
+        public void throwPreconditionFailed() {
+            throw new PreconditionFailedException("Version obsolète");
+        }
+
         @GetMapping("/test/generic-error")
         public void throwGeneric() {
             throw new RuntimeException("Oups, crash système");
@@ -115,6 +130,28 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.status").value(403));
     }
 
+    @Test
+    void handlePersistanceUnavailable_ShouldReturn503() throws Exception {
+        mockMvc.perform(get("/test/persistance-unavailable"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value(503));
+    }
+
+    @Test
+    void handleDeadlineExceeded_ShouldReturn504() throws Exception {
+        mockMvc.perform(get("/test/deadline-exceeded"))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.status").value(504));
+    }
+
+    @Test
+    void handlePreconditionFailed_ShouldReturn412() throws Exception {
+        mockMvc.perform(get("/test/precondition-failed"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412))
+                .andExpect(jsonPath("$.message").value("Version obsolète"));
+    }
+
     @Test
     void handleValidationErrors_ShouldReturn400() throws Exception {
         mockMvc.perform(post("/test/validation")
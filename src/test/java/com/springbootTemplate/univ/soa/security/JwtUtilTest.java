@@ -0,0 +1,352 @@
+package com.springbootTemplate.univ.soa.security;
+
+import com.springbootTemplate.univ.soa.cache.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "une-cle-de-test-suffisamment-longue-pour-hs256";
+
+    private JwtUtil jwtUtil;
+
+    private static JwtUtil nouveau() {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "refreshExpiration", 600_000L);
+        ReflectionTestUtils.setField(util, "revocationBucketMs", 60_000L);
+        return util;
+    }
+
+    private static JwtUtil jwtUtil(String secret, long expiration) {
+        JwtUtil util = nouveau();
+        ReflectionTestUtils.setField(util, "secret", secret);
+        ReflectionTestUtils.setField(util, "expiration", expiration);
+        util.init();
+        return util;
+    }
+
+    private static JwtUtil es256(String secret, KeyPair keyPair) {
+        return es256(secret, keyPair, "test");
+    }
+
+    private static JwtUtil es256(String secret, KeyPair keyPair, String... profils) {
+        JwtUtil util = nouveau();
+        ReflectionTestUtils.setField(util, "secret", secret);
+        ReflectionTestUtils.setField(util, "expiration", 60_000L);
+        ReflectionTestUtils.setField(util, "algorithm", "ES256");
+        if (keyPair != null) {
+            ReflectionTestUtils.setField(util, "ecPrivateKey", pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+            ReflectionTestUtils.setField(util, "ecPublicKey", pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+        }
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles(profils);
+        ReflectionTestUtils.setField(util, "environment", environment);
+        util.init();
+        return util;
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+
+    private static String header(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+    }
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = jwtUtil(SECRET, 60_000);
+    }
+
+    @Test
+    void verify_ValidToken_ShouldReturnPrincipal() {
+        String token = jwtUtil.generateToken("test@univ.fr", "ADMIN");
+
+        JwtPrincipal principal = jwtUtil.verify(token).orElseThrow();
+
+        assertEquals("test@univ.fr", principal.getName());
+        assertEquals("ADMIN", principal.role());
+        assertTrue(principal.expiration().isAfter(Instant.now()));
+        assertEquals("ROLE_ADMIN", principal.authorities().get(0).getAuthority());
+        // Autorités partagées entre principals d'un même rôle
+        assertSame(principal.authorities(), jwtUtil.verify(token).orElseThrow().authorities());
+    }
+
+    @Test
+    void verify_TamperedExpiredOrForeignToken_ShouldReturnEmpty() {
+        String token = jwtUtil.generateToken("test@univ.fr", "USER");
+
+        assertTrue(jwtUtil.verify(token.substring(0, token.length() - 2) + "xx").isEmpty());
+        assertTrue(jwtUtil(SECRET, -1_000).verify(jwtUtil(SECRET, -1_000).generateToken("a@univ.fr", "USER")).isEmpty());
+        assertTrue(jwtUtil(SECRET + "-autre", 60_000).verify(token).isEmpty());
+        assertTrue(jwtUtil.verify("pas-un-jwt").isEmpty());
+    }
+
+    @Test
+    void refreshToken_ShouldOnlyBeAcceptedOnTheRefreshPath() {
+        String acces = jwtUtil.generateToken("test@univ.fr", "USER");
+        String refresh = jwtUtil.generateRefreshToken("test@univ.fr", "USER", "$2a$10$hash");
+
+        assertTrue(jwtUtil.verify(refresh).isEmpty());
+        assertTrue(jwtUtil.verifyRefresh(acces).isEmpty());
+        JwtPrincipal principal = jwtUtil.verifyRefresh(refresh).orElseThrow();
+        assertTrue(principal.refresh());
+        assertNotNull(principal.tokenId());
+        assertTrue(principal.expiration().isAfter(jwtUtil.verify(acces).orElseThrow().expiration()));
+    }
+
+    @Test
+    void refreshToken_ShouldOnlyMatchThePasswordHashItWasIssuedFor() {
+        String refresh = jwtUtil.generateRefreshToken("test@univ.fr", "USER", "$2a$10$hash");
+        JwtPrincipal principal = jwtUtil.verifyRefresh(refresh).orElseThrow();
+
+        assertTrue(jwtUtil.isIssuedForPassword(principal, "$2a$10$hash"));
+        assertFalse(jwtUtil.isIssuedForPassword(principal, "$2a$10$nouveauHash"));
+        // Token émis sans empreinte (avant ce contrôle) : refusé
+        JwtPrincipal sansEmpreinte = new JwtPrincipal("test@univ.fr", "USER", principal.expiration(), "jti", true);
+        assertFalse(jwtUtil.isIssuedForPassword(sansEmpreinte, "$2a$10$hash"));
+    }
+
+    @Test
+    void revoke_ShouldRejectTheTokenEvenWhenCached() {
+        ReflectionTestUtils.setField(jwtUtil, "verifiedTokenCache", new VerifiedTokenCache(1_000_000));
+        String token = jwtUtil.generateToken("test@univ.fr", "USER");
+        String autre = jwtUtil.generateToken("test@univ.fr", "USER");
+        JwtPrincipal principal = jwtUtil.verify(token).orElseThrow();
+
+        assertTrue(jwtUtil.revoke(principal));
+        assertFalse(jwtUtil.revoke(principal));
+
+        assertTrue(jwtUtil.verify(token).isEmpty());
+        assertTrue(jwtUtil.verify(autre).isPresent());
+    }
+
+    @Test
+    void init_ShortSecret_ShouldFail() {
+        assertThrows(IllegalArgumentException.class, () -> jwtUtil("trop-court", 60_000));
+    }
+
+    @Test
+    void es256_TokenShouldBeVerifiableFromThePublishedJwkAlone() throws Exception {
+        KeyPair keyPair = JwtKeys.generateEcKeyPair();
+        JwtUtil emetteur = es256("", keyPair);
+        String token = emetteur.generateToken("test@univ.fr", "ADMIN");
+
+        Map<String, Object> jwk = emetteur.publicJwks().get(0);
+        assertEquals("EC", jwk.get("kty"));
+        assertEquals("ES256", jwk.get("alg"));
+        assertFalse(jwk.containsKey("d"));
+        assertTrue(header(token).contains("\"alg\":\"ES256\""));
+        assertTrue(header(token).contains("\"kid\":\"" + jwk.get("kid") + "\""));
+
+        // Vérification côté service tiers : uniquement à partir de x / y publiés
+        ECParameterSpec p256 = ((ECPublicKey) keyPair.getPublic()).getParams();
+        ECPoint point = new ECPoint(
+                new BigInteger(1, Base64.getUrlDecoder().decode((String) jwk.get("x"))),
+                new BigInteger(1, Base64.getUrlDecoder().decode((String) jwk.get("y"))));
+        PublicKey publique = KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, p256));
+        Claims claims = Jwts.parserBuilder().setSigningKey(publique).build().parseClaimsJws(token).getBody();
+
+        assertEquals("test@univ.fr", claims.getSubject());
+        assertEquals("ADMIN", emetteur.verify(token).orElseThrow().role());
+    }
+
+    @Test
+    void es256_WithoutPrivateKey_ShouldFailOutsideDevAndTestProfiles() {
+        assertThrows(IllegalStateException.class, () -> es256(SECRET, null, new String[0]));
+        assertThrows(IllegalStateException.class, () -> es256(SECRET, null, "prod"));
+        assertNotNull(es256(SECRET, null, "dev").generateToken("test@univ.fr", "USER"));
+        // Avec une clé configurée, aucun profil n'est requis
+        assertNotNull(es256(SECRET, JwtKeys.generateEcKeyPair(), new String[0]).generateToken("test@univ.fr", "USER"));
+    }
+
+    @Test
+    void es256_ShouldAcceptLegacyHs256OnlyWhileSecretIsConfigured() {
+        String ancien = jwtUtil.generateToken("test@univ.fr", "USER");
+
+        assertTrue(es256(SECRET, null).verify(ancien).isPresent());
+        assertTrue(es256("", null).verify(ancien).isEmpty());
+        // Un token ES256 d'une autre clé est refusé
+        assertTrue(es256("", null).verify(es256("", null).generateToken("a@univ.fr", "USER")).isEmpty());
+        // En HS256, aucune clé n'est publiée
+        assertTrue(jwtUtil.publicJwks().isEmpty());
+    }
+
+    @Test
+    void es256_MismatchedKeyPair_ShouldFailAtStartup() {
+        KeyPair a = JwtKeys.generateEcKeyPair();
+        KeyPair b = JwtKeys.generateEcKeyPair();
+
+        assertThrows(IllegalArgumentException.class, () -> es256("", new KeyPair(b.getPublic(), a.getPrivate())));
+    }
+
+    @Test
+    void previousSecret_ShouldStillVerifyOldTokensWhileNewOnesUseTheNewKey() {
+        String ancien = jwtUtil.generateToken("test@univ.fr", "USER");
+        JwtUtil apresRotation = nouveau();
+        ReflectionTestUtils.setField(apresRotation, "secret", SECRET + "-2026");
+        ReflectionTestUtils.setField(apresRotation, "previousSecrets", SECRET);
+        ReflectionTestUtils.setField(apresRotation, "expiration", 60_000L);
+        apresRotation.init();
+
+        String nouveau = apresRotation.generateToken("test@univ.fr", "USER");
+
+        assertTrue(apresRotation.verify(ancien).isPresent());
+        assertTrue(apresRotation.verify(nouveau).isPresent());
+        assertTrue(jwtUtil.verify(nouveau).isEmpty());
+        assertNotEquals(header(ancien), header(nouveau));
+    }
+
+    @Test
+    void tokenWithoutKid_ShouldBeVerifiedByAnyKeyOfItsAlgorithm() {
+        JwtUtil apresDeuxRotations = nouveau();
+        ReflectionTestUtils.setField(apresDeuxRotations, "secret", SECRET + "-2027");
+        ReflectionTestUtils.setField(apresDeuxRotations, "previousSecrets", SECRET + "-2026," + SECRET);
+        ReflectionTestUtils.setField(apresDeuxRotations, "expiration", 60_000L);
+        apresDeuxRotations.init();
+
+        // Tokens émis avant l'ajout du kid, par le secret le plus ancien
+        String sansKid = sansKid(SECRET);
+        String inconnu = sansKid("un-secret-jamais-configure-dans-ce-service");
+
+        assertEquals("test@univ.fr", apresDeuxRotations.verify(sansKid).orElseThrow().subject());
+        assertEquals("test@univ.fr", apresDeuxRotations.extractUsername(sansKid));
+        assertTrue(apresDeuxRotations.verify(inconnu).isEmpty());
+    }
+
+    private static String sansKid(String secret) {
+        return Jwts.builder()
+                .setSubject("test@univ.fr")
+                .claim("role", "USER")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Test
+    void keysFile_ShouldRotateAtRuntimeWithoutInvalidatingOutstandingTokens(@TempDir Path dossier) throws Exception {
+        KeyPair a = JwtKeys.generateEcKeyPair();
+        KeyPair b = JwtKeys.generateEcKeyPair();
+        Path fichier = dossier.resolve("jwt-keys.json");
+        ecrire(fichier, 1, cle("a", a, true));
+
+        JwtUtil util = nouveau();
+        ReflectionTestUtils.setField(util, "keysFile", fichier.toString());
+        ReflectionTestUtils.setField(util, "expiration", 60_000L);
+        VerifiedTokenCache cache = new VerifiedTokenCache(1_000_000);
+        ReflectionTestUtils.setField(util, "verifiedTokenCache", cache);
+        util.init();
+        String tokenA = util.generateToken("test@univ.fr", "USER");
+        assertTrue(util.verify(tokenA).isPresent());
+
+        // Nouvelle clé b en tête : elle signe, a ne sert plus qu'à vérifier
+        ecrire(fichier, 2, cle("b", b, true), cle("a", a, false));
+        util.reloadKeys();
+        String tokenB = util.generateToken("test@univ.fr", "USER");
+
+        assertTrue(header(tokenB).contains("\"kid\":\"b\""));
+        assertTrue(util.verify(tokenA).isPresent());
+        assertTrue(util.verify(tokenB).isPresent());
+        assertEquals(2, util.publicJwks().size());
+        assertEquals(2, cache.cache().estimatedSize());
+
+        // Fichier invalide : jeu actuel conservé
+        Files.writeString(fichier, "{");
+        Files.setLastModifiedTime(fichier, FileTime.fromMillis(3_000_000));
+        util.reloadKeys();
+        assertTrue(util.verify(tokenB).isPresent());
+
+        // a retirée : ses tokens sont refusés, y compris ceux déjà en cache
+        ecrire(fichier, 4, cle("b", b, true));
+        util.reloadKeys();
+        assertTrue(util.verify(tokenA).isEmpty());
+        assertTrue(util.verify(tokenB).isPresent());
+    }
+
+    @Test
+    void keyRing_ShouldRejectAnAlgorithmOtherThanTheKeys() {
+        JwtKeyRing ring = JwtKeyRing.builder()
+                .ec("ec", JwtKeys.generateEcKeyPair())
+                .hmac("hs", SECRET)
+                .build();
+
+        assertNotNull(ring.verificationKey("ec", "ES256"));
+        assertThrows(UnsupportedJwtException.class, () -> ring.verificationKey("ec", "HS256"));
+        assertThrows(UnsupportedJwtException.class, () -> ring.verificationKey("inconnu", "ES256"));
+        assertEquals("ec", ring.signing().kid());
+    }
+
+    private static String cle(String kid, KeyPair keyPair, boolean signe) {
+        return "{\"kid\":\"" + kid + "\",\"alg\":\"ES256\","
+                + (signe ? "\"privateKey\":\"" + pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()).replace("\n", "\\n") + "\"," : "")
+                + "\"publicKey\":\"" + pem("PUBLIC KEY", keyPair.getPublic().getEncoded()).replace("\n", "\\n") + "\"}";
+    }
+
+    private static void ecrire(Path fichier, long version, String... cles) throws Exception {
+        Files.writeString(fichier, "{\"keys\":[" + String.join(",", cles) + "]}");
+        Files.setLastModifiedTime(fichier, FileTime.fromMillis(version * 1_000_000));
+    }
+
+    @Test
+    void verify_WithCache_ShouldSkipParsingForRepeatedToken() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(1_000_000);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedTokenCache", cache);
+        String token = jwtUtil.generateToken("test@univ.fr", "USER");
+
+        JwtPrincipal premier = jwtUtil.verify(token).orElseThrow();
+        assertSame(premier, jwtUtil.verify(token).orElseThrow());
+        assertTrue(jwtUtil.verify(token + "x").isEmpty());
+
+        assertEquals(1, cache.cache().stats().hitCount());
+        assertEquals(1, cache.cache().estimatedSize());
+    }
+
+    @Test
+    void verify_CacheHit_ShouldNotReachTheParser() {
+        ReflectionTestUtils.setField(jwtUtil, "verifiedTokenCache", new VerifiedTokenCache(1_000_000));
+        JwtParser parser = spy((JwtParser) ReflectionTestUtils.getField(jwtUtil, "parser"));
+        ReflectionTestUtils.setField(jwtUtil, "parser", parser);
+        String token = jwtUtil.generateToken("test@univ.fr", "USER");
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(jwtUtil.verify(token).isPresent());
+        }
+
+        // Signature et claims vérifiés une seule fois, les appels suivants sont servis par le cache
+        verify(parser, times(1)).parseClaimsJws(token);
+    }
+}
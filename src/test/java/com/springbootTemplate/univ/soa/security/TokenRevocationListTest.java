@@ -0,0 +1,52 @@
+package com.springbootTemplate.univ.soa.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationListTest {
+
+    private final TokenRevocationList revocations = new TokenRevocationList(Duration.ofMinutes(1), Duration.ofHours(1));
+
+    @Test
+    void revoke_ShouldBeVisibleOnlyForThatToken() {
+        Instant expiration = Instant.now().plus(Duration.ofMinutes(15));
+
+        assertTrue(revocations.revoke("jti-1", expiration));
+        assertFalse(revocations.revoke("jti-1", expiration));
+
+        assertTrue(revocations.isRevoked("jti-1", expiration));
+        assertFalse(revocations.isRevoked("jti-2", expiration));
+        assertFalse(revocations.isRevoked("jti-1", expiration.plus(Duration.ofMinutes(5))));
+        assertEquals(1, revocations.size());
+    }
+
+    @Test
+    void expiredOrOutOfWindowTokens_ShouldNotBeStored() {
+        assertFalse(revocations.revoke("expire", Instant.now().minusSeconds(1)));
+
+        Instant dans30min = Instant.now().plus(Duration.ofMinutes(30));
+        assertTrue(revocations.revoke("jti", dans30min));
+        // Même case du ring qu'une tranche encore valide : jamais écrasée
+        Instant horsFenetre = dans30min.plus(Duration.ofMinutes(62));
+        revocations.revoke("lointain", horsFenetre);
+
+        assertTrue(revocations.isRevoked("jti", dans30min));
+    }
+
+    @Test
+    void manyRevocations_ShouldAllBeFound() {
+        Instant expiration = Instant.now().plus(Duration.ofMinutes(10));
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(revocations.revoke("jti-" + i, expiration));
+        }
+
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(revocations.isRevoked("jti-" + i, expiration), "jti-" + i);
+        }
+        assertEquals(5_000, revocations.size());
+    }
+}
@@ -0,0 +1,71 @@
+package com.springbootTemplate.univ.soa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springbootTemplate.univ.soa.dto.MsPersistanceUtilisateurDto;
+import com.springbootTemplate.univ.soa.dto.UtilisateurResponseDto;
+import com.springbootTemplate.univ.soa.exception.InvalidPatchException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UtilisateurMergePatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private UtilisateurMergePatch parse(String json) throws Exception {
+        return UtilisateurMergePatch.parse(objectMapper.readTree(json));
+    }
+
+    private final UtilisateurResponseDto existant = UtilisateurResponseDto.builder()
+            .id(1L)
+            .email("test@univ.fr")
+            .nom("Doe")
+            .prenom("John")
+            .regimesIds(Set.of(1L))
+            .allergenesIds(Set.of(3L, 4L))
+            .typesCuisinePreferesIds(Set.of(5L))
+            .build();
+
+    @Test
+    void applyTo_AddAndRemovePreferences_ShouldKeepOtherFields() throws Exception {
+        UtilisateurMergePatch patch = parse("{\"allergenesIds\": {\"7\": true, \"3\": null}, \"nom\": \"Smith\"}");
+
+        MsPersistanceUtilisateurDto dto = patch.applyTo(existant);
+
+        assertEquals(Set.of(4L, 7L), dto.getAllergenesIds());
+        assertEquals("Smith", dto.getNom());
+        assertEquals("John", dto.getPrenom());
+        assertEquals(Set.of(1L), dto.getRegimesIds());
+        assertNull(dto.getMotDePasse());
+    }
+
+    @Test
+    void applyTo_ArrayReplacesAndNullClears() throws Exception {
+        UtilisateurMergePatch patch = parse("{\"regimesIds\": [8, 9], \"typesCuisinePreferesIds\": null}");
+
+        MsPersistanceUtilisateurDto dto = patch.applyTo(existant);
+
+        assertEquals(Set.of(8L, 9L), dto.getRegimesIds());
+        assertTrue(dto.getTypesCuisinePreferesIds().isEmpty());
+    }
+
+    @Test
+    void toJson_ShouldContainOnlyChangedFields() throws Exception {
+        UtilisateurMergePatch patch = parse("{\"allergenesIds\": {\"7\": true, \"3\": false}}");
+
+        assertEquals("{\"allergenesIds\":{\"7\":true,\"3\":null}}", patch.toJson().toString());
+        assertEquals(Set.of("allergenesIds"), patch.champsModifies());
+    }
+
+    @Test
+    void parse_ForbiddenOrInvalidFields_ShouldThrow() {
+        assertThrows(InvalidPatchException.class, () -> parse("{\"role\": \"ADMIN\"}"));
+        assertThrows(InvalidPatchException.class, () -> parse("{\"nom\": null}"));
+        assertThrows(InvalidPatchException.class, () -> parse("{\"email\": \"pas-un-email\"}"));
+        assertThrows(InvalidPatchException.class, () -> parse("{\"allergenesIds\": {\"abc\": true}}"));
+        assertThrows(InvalidPatchException.class, () -> parse("{\"allergenesIds\": {\"7\": 1}}"));
+        assertThrows(InvalidPatchException.class, () -> parse("[1, 2]"));
+    }
+}
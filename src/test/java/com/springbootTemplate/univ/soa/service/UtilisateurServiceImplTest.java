@@ -1,26 +1,48 @@
 package com.springbootTemplate.univ.soa.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springbootTemplate.univ.soa.cache.RegisteredEmailFilter;
+import com.springbootTemplate.univ.soa.cache.UtilisateurProfileCache;
 import com.springbootTemplate.univ.soa.client.PersistanceClient;
+import com.springbootTemplate.univ.soa.client.RequestDeadline;
 import com.springbootTemplate.univ.soa.dto.*;
+import com.springbootTemplate.univ.soa.exception.DeadlineExceededException;
 import com.springbootTemplate.univ.soa.exception.EmailAlreadyExistsException;
+import com.springbootTemplate.univ.soa.exception.PersistanceUnavailableException;
+import com.springbootTemplate.univ.soa.exception.PreconditionFailedException;
 import com.springbootTemplate.univ.soa.exception.UtilisateurNotFoundException;
 import com.springbootTemplate.univ.soa.model.Role;
+import com.springbootTemplate.univ.soa.security.JwtPrincipal;
 import com.springbootTemplate.univ.soa.security.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -36,6 +58,12 @@ class UtilisateurServiceImplTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Spy
+    private UtilisateurProfileCache profileCache = new UtilisateurProfileCache(100, Duration.ofMinutes(1));
+
+    @Spy
+    private RegisteredEmailFilter emailFilter = new RegisteredEmailFilter(100, 0.01, true, 60_000);
+
     @InjectMocks
     private UtilisateurServiceImpl utilisateurService;
 
@@ -93,7 +121,6 @@ class UtilisateurServiceImplTest {
     @Test
     void register_Success() {
         // GIVEN
-        when(persistanceClient.existsByEmail(anyString())).thenReturn(false);
         when(persistanceClient.createUtilisateur(any(UtilisateurCreateDto.class))).thenReturn(responseDto);
 
         // WHEN
@@ -113,12 +140,24 @@ class UtilisateurServiceImplTest {
 
     @Test
     void register_EmailExists_ThrowsException() {
+        // GIVEN : ms-persistance refuse la création conditionnelle
+        when(persistanceClient.createUtilisateur(any(UtilisateurCreateDto.class)))
+                .thenThrow(new EmailAlreadyExistsException("Cet email est déjà utilisé"));
+
+        // WHEN & THEN
+        assertThrows(EmailAlreadyExistsException.class, () -> utilisateurService.register(createDto));
+        verify(persistanceClient, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void register_EmailInProfileCache_RejectedWithoutRemoteCall() {
         // GIVEN
-        when(persistanceClient.existsByEmail(createDto.getEmail())).thenReturn(true);
+        ReflectionTestUtils.setField(utilisateurService, "registerFastRejectEnabled", true);
+        profileCache.put(responseDto);
 
         // WHEN & THEN
         assertThrows(EmailAlreadyExistsException.class, () -> utilisateurService.register(createDto));
-        verify(persistanceClient, never()).createUtilisateur(any());
+        verifyNoInteractions(persistanceClient);
     }
 
     // --- TESTS LOGIN ---
@@ -126,36 +165,146 @@ class UtilisateurServiceImplTest {
     @Test
     void login_Success() {
         // GIVEN
-        when(persistanceClient.getUtilisateurForAuth(loginDto.getEmail())).thenReturn(authDto);
+        when(persistanceClient.findUtilisateurForAuth(loginDto.getEmail())).thenReturn(Optional.of(authDto));
         when(passwordEncoder.matches("rawPassword", "$2a$10$hashedPassword")).thenReturn(true);
         when(jwtUtil.generateToken(anyString(), anyString())).thenReturn("mock-jwt-token");
+        when(jwtUtil.generateRefreshToken("test@univ.fr", "USER", "$2a$10$hashedPassword")).thenReturn("mock-refresh-token");
+        when(jwtUtil.accessTokenTtlSeconds()).thenReturn(900L);
 
         // WHEN
-        String token = utilisateurService.login(loginDto);
+        TokenResponseDto tokens = utilisateurService.login(loginDto);
 
         // THEN
-        assertNotNull(token);
-        assertEquals("mock-jwt-token", token);
+        assertNotNull(tokens);
+        assertEquals("mock-jwt-token", tokens.getToken());
+        assertEquals("Bearer", tokens.getType());
+        assertEquals("mock-refresh-token", tokens.getRefreshToken());
+        assertEquals(900L, tokens.getExpiresIn());
         verify(passwordEncoder).matches("rawPassword", "$2a$10$hashedPassword");
         verify(jwtUtil).generateToken("test@univ.fr", "USER");
     }
 
+    // --- TESTS REFRESH / LOGOUT ---
+
+    private final JwtPrincipal refreshPrincipal = new JwtPrincipal("test@univ.fr", "USER",
+            Instant.now().plus(Duration.ofDays(7)), "jti-refresh", true);
+
+    @Test
+    void refresh_Success_ChecksPersistedStateWithoutBcrypt() {
+        // Profil en cache encore actif : ignoré, seul l'état persisté compte
+        profileCache.put(responseDto);
+        when(jwtUtil.verifyRefresh("refresh")).thenReturn(Optional.of(refreshPrincipal));
+        when(persistanceClient.findUtilisateurForAuth("test@univ.fr")).thenReturn(Optional.of(authDto));
+        when(jwtUtil.isIssuedForPassword(refreshPrincipal, "$2a$10$hashedPassword")).thenReturn(true);
+        when(jwtUtil.revoke(refreshPrincipal)).thenReturn(true);
+        when(jwtUtil.generateToken("test@univ.fr", "USER")).thenReturn("nouveau-token");
+        when(jwtUtil.generateRefreshToken("test@univ.fr", "USER", "$2a$10$hashedPassword")).thenReturn("nouveau-refresh");
+
+        TokenResponseDto tokens = utilisateurService.refresh("refresh");
+
+        assertEquals("nouveau-token", tokens.getToken());
+        assertEquals("nouveau-refresh", tokens.getRefreshToken());
+        verifyNoInteractions(passwordEncoder);
+        verify(persistanceClient, never()).getUtilisateurByEmail(anyString());
+    }
+
+    @Test
+    void refresh_AfterPasswordChange_ThrowsBadCredentials() {
+        when(jwtUtil.verifyRefresh("refresh")).thenReturn(Optional.of(refreshPrincipal));
+        authDto.setMotDePasse("$2a$10$nouveauHash");
+        when(persistanceClient.findUtilisateurForAuth("test@univ.fr")).thenReturn(Optional.of(authDto));
+        when(jwtUtil.isIssuedForPassword(refreshPrincipal, "$2a$10$nouveauHash")).thenReturn(false);
+
+        assertThrows(BadCredentialsException.class, () -> utilisateurService.refresh("refresh"));
+        verify(jwtUtil, never()).revoke(any());
+        verify(jwtUtil, never()).generateToken(anyString(), anyString());
+    }
+
+    @Test
+    void refresh_AlreadyUsedToken_ThrowsBadCredentials() {
+        when(jwtUtil.verifyRefresh("refresh")).thenReturn(Optional.of(refreshPrincipal));
+        when(persistanceClient.findUtilisateurForAuth("test@univ.fr")).thenReturn(Optional.of(authDto));
+        when(jwtUtil.isIssuedForPassword(refreshPrincipal, "$2a$10$hashedPassword")).thenReturn(true);
+        when(jwtUtil.revoke(refreshPrincipal)).thenReturn(false);
+
+        assertThrows(BadCredentialsException.class, () -> utilisateurService.refresh("refresh"));
+        verify(jwtUtil, never()).generateToken(anyString(), anyString());
+    }
+
+    @Test
+    void refresh_InactiveOrUnknownAccount_ThrowsBadCredentials() {
+        // Compte désactivé dans ms-persistance, même si le profil en cache est encore actif
+        profileCache.put(responseDto);
+        authDto.setActif(false);
+        when(jwtUtil.verifyRefresh("refresh")).thenReturn(Optional.of(refreshPrincipal));
+        when(persistanceClient.findUtilisateurForAuth("test@univ.fr")).thenReturn(Optional.of(authDto));
+
+        assertThrows(BadCredentialsException.class, () -> utilisateurService.refresh("refresh"));
+
+        when(persistanceClient.findUtilisateurForAuth("test@univ.fr")).thenReturn(Optional.empty());
+        assertThrows(BadCredentialsException.class, () -> utilisateurService.refresh("refresh"));
+        verify(jwtUtil, never()).revoke(any());
+    }
+
+    @Test
+    void refresh_InvalidToken_ThrowsBadCredentials() {
+        when(jwtUtil.verifyRefresh("invalide")).thenReturn(Optional.empty());
+
+        assertThrows(BadCredentialsException.class, () -> utilisateurService.refresh("invalide"));
+        verifyNoInteractions(persistanceClient);
+    }
+
+    @Test
+    void logout_ShouldRevokeBothTokens() {
+        JwtPrincipal acces = new JwtPrincipal("test@univ.fr", "USER", Instant.now().plusSeconds(900), "jti-acces", false);
+        when(jwtUtil.verify("acces")).thenReturn(Optional.of(acces));
+        when(jwtUtil.verifyRefresh("refresh")).thenReturn(Optional.of(refreshPrincipal));
+
+        utilisateurService.logout("acces", "refresh");
+
+        verify(jwtUtil).revoke(acces);
+        verify(jwtUtil).revoke(refreshPrincipal);
+    }
+
     @Test
     void login_UserNotFound_ThrowsBadCredentials() {
         // GIVEN
-        when(persistanceClient.getUtilisateurForAuth(anyString()))
-                .thenThrow(new UtilisateurNotFoundException("Introuvable"));
+        when(persistanceClient.findUtilisateurForAuth(anyString())).thenReturn(Optional.empty());
+
+        // WHEN & THEN
+        Exception ex = assertThrows(BadCredentialsException.class, () -> utilisateurService.login(loginDto));
+        assertEquals("Email ou mot de passe incorrect", ex.getMessage());
+    }
+
+    @Test
+    void login_EmailAbsentFromFilter_RejectedWithoutRemoteCall() {
+        // GIVEN
+        emailFilter.rebuild(() -> List.of("autre@univ.fr"));
 
         // WHEN & THEN
         Exception ex = assertThrows(BadCredentialsException.class, () -> utilisateurService.login(loginDto));
         assertEquals("Email ou mot de passe incorrect", ex.getMessage());
+        verifyNoInteractions(persistanceClient);
+    }
+
+    @Test
+    void login_EmailAbsentFromIncompleteFilter_StillLooksUp() {
+        // GIVEN : filtre d'une instance parmi d'autres, l'inscription a eu lieu ailleurs
+        RegisteredEmailFilter incomplet = new RegisteredEmailFilter(100, 0.01, false, 60_000);
+        incomplet.rebuild(() -> List.of("autre@univ.fr"));
+        ReflectionTestUtils.setField(utilisateurService, "emailFilter", incomplet);
+        when(persistanceClient.findUtilisateurForAuth(loginDto.getEmail())).thenReturn(Optional.empty());
+
+        // WHEN & THEN
+        assertThrows(BadCredentialsException.class, () -> utilisateurService.login(loginDto));
+        verify(persistanceClient).findUtilisateurForAuth(loginDto.getEmail());
     }
 
     @Test
     void login_AccountInactive_ThrowsBadCredentials() {
         // GIVEN
         authDto.setActif(false);
-        when(persistanceClient.getUtilisateurForAuth(loginDto.getEmail())).thenReturn(authDto);
+        when(persistanceClient.findUtilisateurForAuth(loginDto.getEmail())).thenReturn(Optional.of(authDto));
 
         // WHEN & THEN
         Exception ex = assertThrows(BadCredentialsException.class, () -> utilisateurService.login(loginDto));
@@ -165,7 +314,7 @@ class UtilisateurServiceImplTest {
     @Test
     void login_WrongPassword_ThrowsBadCredentials() {
         // GIVEN
-        when(persistanceClient.getUtilisateurForAuth(loginDto.getEmail())).thenReturn(authDto);
+        when(persistanceClient.findUtilisateurForAuth(loginDto.getEmail())).thenReturn(Optional.of(authDto));
         when(passwordEncoder.matches("rawPassword", "$2a$10$hashedPassword")).thenReturn(false);
 
         // WHEN & THEN
@@ -174,6 +323,178 @@ class UtilisateurServiceImplTest {
         verify(jwtUtil, never()).generateToken(anyString(), anyString());
     }
 
+    @Test
+    void login_DeadlineExceeded_SkipsPasswordCheck() {
+        // GIVEN : budget déjà consommé avant la vérification BCrypt
+        when(persistanceClient.findUtilisateurForAuth(loginDto.getEmail())).thenReturn(Optional.of(authDto));
+        RequestDeadline.start(0);
+
+        // WHEN & THEN
+        try {
+            assertThrows(DeadlineExceededException.class, () -> utilisateurService.login(loginDto));
+            verify(passwordEncoder, never()).matches(anyString(), anyString());
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    // --- TESTS LECTURE (CACHE) ---
+
+    @Test
+    void getUtilisateurById_SecondCall_ServedFromCache() {
+        // GIVEN
+        when(persistanceClient.getUtilisateurById(1L)).thenReturn(responseDto);
+
+        // WHEN
+        UtilisateurResponseDto first = utilisateurService.getUtilisateurById(1L);
+        UtilisateurResponseDto second = utilisateurService.getUtilisateurById(1L);
+
+        // THEN
+        assertEquals("test@univ.fr", first.getEmail());
+        assertEquals(first, second);
+        verify(persistanceClient, times(1)).getUtilisateurById(1L);
+    }
+
+    @Test
+    void getUtilisateurByEmail_AfterLookupById_ServedFromCache() {
+        // GIVEN
+        when(persistanceClient.getUtilisateurById(1L)).thenReturn(responseDto);
+        utilisateurService.getUtilisateurById(1L);
+
+        // WHEN
+        UtilisateurResponseDto result = utilisateurService.getUtilisateurByEmail("TEST@univ.fr");
+
+        // THEN
+        assertEquals(1L, result.getId());
+        verify(persistanceClient, never()).getUtilisateurByEmail(anyString());
+    }
+
+    @Test
+    void getUtilisateurById_NotFound_IsNotCached() {
+        // GIVEN
+        when(persistanceClient.getUtilisateurById(99L))
+                .thenThrow(new UtilisateurNotFoundException("Introuvable"));
+
+        // WHEN & THEN
+        assertThrows(UtilisateurNotFoundException.class, () -> utilisateurService.getUtilisateurById(99L));
+        assertThrows(UtilisateurNotFoundException.class, () -> utilisateurService.getUtilisateurById(99L));
+        verify(persistanceClient, times(2)).getUtilisateurById(99L);
+    }
+
+    @Test
+    void deleteUtilisateur_InvalidatesCache() {
+        // GIVEN
+        when(persistanceClient.getUtilisateurById(1L)).thenReturn(responseDto);
+        utilisateurService.getUtilisateurById(1L);
+
+        // WHEN
+        utilisateurService.deleteUtilisateur(1L);
+        utilisateurService.getUtilisateurById(1L);
+
+        // THEN
+        verify(persistanceClient).deleteUtilisateur(1L);
+        verify(persistanceClient, times(2)).getUtilisateurById(1L);
+    }
+
+    @Test
+    void resetPassword_InvalidatesCache() {
+        // GIVEN
+        when(persistanceClient.getUtilisateurById(1L)).thenReturn(responseDto);
+        utilisateurService.getUtilisateurById(1L);
+        when(persistanceClient.validateToken("reset-token"))
+                .thenReturn(TokenValidationDto.builder().valid(true).utilisateurId(1L).build());
+        when(passwordEncoder.encode("newPassword123")).thenReturn("$2a$10$newHashedPassword");
+
+        // WHEN
+        utilisateurService.resetPassword("reset-token", "newPassword123");
+        utilisateurService.getUtilisateurById(1L);
+
+        // THEN
+        InOrder ordre = inOrder(persistanceClient);
+        ordre.verify(persistanceClient).markTokenAsUsed("reset-token");
+        ordre.verify(persistanceClient).updatePassword(1L, "$2a$10$newHashedPassword");
+        verify(persistanceClient, times(2)).getUtilisateurById(1L);
+    }
+
+    @Test
+    void resetPassword_TokenCannotBeMarked_ShouldKeepPassword() {
+        // GIVEN
+        when(persistanceClient.validateToken("reset-token"))
+                .thenReturn(TokenValidationDto.builder().valid(true).utilisateurId(1L).build());
+        when(passwordEncoder.encode("newPassword123")).thenReturn("$2a$10$newHashedPassword");
+        doThrow(new PersistanceUnavailableException("circuit ouvert", null))
+                .when(persistanceClient).markTokenAsUsed("reset-token");
+
+        // WHEN / THEN
+        assertThrows(PersistanceUnavailableException.class,
+                () -> utilisateurService.resetPassword("reset-token", "newPassword123"));
+        verify(persistanceClient, never()).updatePassword(anyLong(), anyString());
+    }
+
+    @Test
+    void streamUtilisateurById_DelegatesToClientWithoutCache() {
+        // GIVEN
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // WHEN
+        utilisateurService.streamUtilisateurById(1L, out);
+        utilisateurService.streamUtilisateurByEmail("test@univ.fr", out);
+
+        // THEN
+        verify(persistanceClient).streamUtilisateurById(1L, out);
+        verify(persistanceClient).streamUtilisateurByEmail("test@univ.fr", out);
+        verify(profileCache, never()).put(any());
+    }
+
+    // --- TESTS RECHERCHE GROUPÉE ---
+
+    @Test
+    void getUtilisateursBatch_MixesCacheHitsRemoteHitsAndNotFound() {
+        // GIVEN - l'utilisateur 1 est déjà en cache
+        when(persistanceClient.getUtilisateurById(1L)).thenReturn(responseDto);
+        utilisateurService.getUtilisateurById(1L);
+
+        UtilisateurResponseDto autre = UtilisateurResponseDto.builder().id(2L).email("autre@univ.fr").build();
+        when(persistanceClient.getUtilisateursByIds(List.of(2L, 3L))).thenReturn(Map.of(2L, autre));
+        when(persistanceClient.getUtilisateursByEmails(List.of("inconnu@univ.fr"))).thenReturn(Map.of());
+
+        UtilisateurBatchRequestDto batchDto = UtilisateurBatchRequestDto.builder()
+                .ids(List.of(1L, 2L, 3L, 2L))
+                .emails(List.of("TEST@univ.fr", "inconnu@univ.fr"))
+                .build();
+
+        // WHEN
+        List<UtilisateurBatchItemDto> result = utilisateurService.getUtilisateursBatch(batchDto);
+
+        // THEN - un élément par clé distincte, dans l'ordre demandé
+        assertEquals(5, result.size());
+        assertTrue(result.get(0).getTrouve());
+        assertEquals(1L, result.get(0).getUtilisateur().getId());
+        assertTrue(result.get(1).getTrouve());
+        assertEquals(2L, result.get(1).getUtilisateur().getId());
+        assertFalse(result.get(2).getTrouve());
+        assertEquals(3L, result.get(2).getId());
+        assertNull(result.get(2).getUtilisateur());
+        assertTrue(result.get(3).getTrouve());
+        assertEquals("TEST@univ.fr", result.get(3).getEmail());
+        assertFalse(result.get(4).getTrouve());
+        verify(persistanceClient, times(1)).getUtilisateurById(1L);
+    }
+
+    @Test
+    void getUtilisateursBatch_RemoteResultsAreCached() {
+        // GIVEN
+        when(persistanceClient.getUtilisateursByIds(List.of(1L))).thenReturn(Map.of(1L, responseDto));
+        utilisateurService.getUtilisateursBatch(UtilisateurBatchRequestDto.builder().ids(List.of(1L)).build());
+
+        // WHEN
+        UtilisateurResponseDto result = utilisateurService.getUtilisateurById(1L);
+
+        // THEN
+        assertEquals("test@univ.fr", result.getEmail());
+        verify(persistanceClient, never()).getUtilisateurById(anyLong());
+    }
+
     // --- TESTS UPDATE ---
 
     @Test
@@ -230,13 +551,39 @@ class UtilisateurServiceImplTest {
                 .nouveauMotDePasse("newPassword123")
                 .build();
 
-        when(persistanceClient.getUtilisateurById(1L)).thenReturn(responseDto);
-
-        // WHEN & THEN
+        // WHEN & THEN : refus avant tout appel distant
         Exception ex = assertThrows(BadCredentialsException.class,
                 () -> utilisateurService.updateUtilisateur(1L, updateDto));
         assertEquals("L'ancien mot de passe est requis pour changer le mot de passe", ex.getMessage());
-        verify(persistanceClient, never()).updateUtilisateur(anyLong(), any());
+        verifyNoInteractions(persistanceClient);
+    }
+
+    @Test
+    void updateUtilisateur_WithPasswordChange_KnownEmail_FetchesProfileAndHashTogether() {
+        // GIVEN : email connu via l'utilisateur authentifié
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("test@univ.fr", null, List.of()));
+        UtilisateurUpdateDto updateDto = UtilisateurUpdateDto.builder()
+                .ancienMotDePasse("rawPassword")
+                .nouveauMotDePasse("newPassword123")
+                .build();
+        when(persistanceClient.getUtilisateurById(1L)).thenReturn(responseDto);
+        when(persistanceClient.findUtilisateurForAuth("test@univ.fr")).thenReturn(Optional.of(authDto));
+        when(passwordEncoder.matches("rawPassword", "$2a$10$hashedPassword")).thenReturn(true);
+        when(passwordEncoder.encode("newPassword123")).thenReturn("$2a$10$newHashedPassword");
+        when(persistanceClient.updateUtilisateur(eq(1L), any(MsPersistanceUtilisateurDto.class))).thenReturn(responseDto);
+
+        // WHEN
+        try {
+            utilisateurService.updateUtilisateur(1L, updateDto);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        // THEN
+        verify(persistanceClient, never()).getUtilisateurForAuth(anyString());
+        verify(persistanceClient).updateUtilisateur(eq(1L), argThat(dto ->
+                dto.getMotDePasse().equals("$2a$10$newHashedPassword")));
     }
 
     @Test
@@ -265,6 +612,163 @@ class UtilisateurServiceImplTest {
         ));
     }
 
+    @Test
+    void updateUtilisateur_QueuedWritesOfDifferentPrincipals_AreNeverMerged() throws Exception {
+        // GIVEN : une première écriture bloquée chez ms-persistance
+        CountDownLatch premiereEnCours = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+        when(persistanceClient.getUtilisateurById(1L)).thenReturn(responseDto);
+        when(persistanceClient.updateUtilisateur(eq(1L), any(MsPersistanceUtilisateurDto.class))).thenAnswer(invocation -> {
+            premiereEnCours.countDown();
+            liberer.await(5, TimeUnit.SECONDS);
+            return responseDto;
+        });
+        Thread premiere = ecrireEnTantQue("a@univ.fr", "A");
+        assertTrue(premiereEnCours.await(5, TimeUnit.SECONDS));
+
+        // WHEN : deux autres appelants mettent en file une écriture fusionnable
+        Thread deuxieme = ecrireEnTantQue("b@univ.fr", "B");
+        attendreEnFile(deuxieme);
+        Thread troisieme = ecrireEnTantQue("c@univ.fr", "C");
+        attendreEnFile(troisieme);
+        liberer.countDown();
+        for (Thread ecriture : List.of(premiere, deuxieme, troisieme)) {
+            ecriture.join(5_000);
+        }
+
+        // THEN : chaque appelant a sa propre écriture
+        verify(persistanceClient, times(3)).updateUtilisateur(eq(1L), any(MsPersistanceUtilisateurDto.class));
+        verify(persistanceClient).updateUtilisateur(eq(1L), argThat(dto -> "B".equals(dto.getNom())));
+        verify(persistanceClient).updateUtilisateur(eq(1L), argThat(dto -> "C".equals(dto.getNom())));
+    }
+
+    private Thread ecrireEnTantQue(String principal, String nom) {
+        return Thread.ofPlatform().start(() -> {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+            try {
+                utilisateurService.updateUtilisateur(1L, UtilisateurUpdateDto.builder().nom(nom).build());
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        });
+    }
+
+    private static void attendreEnFile(Thread ecriture) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ecriture.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void updateUtilisateur_StaleIfMatch_ThrowsPreconditionFailedWithoutWrite() {
+        // GIVEN
+        UtilisateurUpdateDto updateDto = UtilisateurUpdateDto.builder().nom("NewName").build();
+        when(persistanceClient.getUtilisateurById(1L)).thenReturn(responseDto);
+
+        // WHEN & THEN
+        assertThrows(PreconditionFailedException.class,
+                () -> utilisateurService.updateUtilisateur(1L, updateDto, "\"version-obsolete\""));
+        verify(persistanceClient, never()).updateUtilisateur(anyLong(), any());
+    }
+
+    @Test
+    void updateUtilisateur_MatchingIfMatch_ChecksLocallyAndDoesNotForwardIt() {
+        // GIVEN : même avec un profil en cache, la version est relue avant l'écriture
+        profileCache.put(responseDto);
+        String etag = UtilisateurEtag.of(responseDto);
+        UtilisateurUpdateDto updateDto = UtilisateurUpdateDto.builder().nom("NewName").build();
+        when(persistanceClient.getUtilisateurById(1L)).thenReturn(responseDto);
+        when(persistanceClient.updateUtilisateur(eq(1L), any(MsPersistanceUtilisateurDto.class))).thenReturn(responseDto);
+
+        // WHEN
+        utilisateurService.updateUtilisateur(1L, updateDto, etag);
+
+        // THEN
+        verify(persistanceClient).getUtilisateurById(1L);
+        verify(persistanceClient).updateUtilisateur(eq(1L), argThat(dto -> dto.getNom().equals("NewName")));
+    }
+
+    @Test
+    void patchUtilisateur_NativeUnsupported_FallsBackToMergedPut() throws Exception {
+        // GIVEN
+        responseDto.setAllergenesIds(Set.of(3L, 4L));
+        UtilisateurMergePatch patch = UtilisateurMergePatch.parse(
+                new ObjectMapper().readTree("{\"allergenesIds\": {\"7\": true, \"3\": null}}"));
+        when(persistanceClient.patchUtilisateur(eq(1L), any())).thenReturn(Optional.empty());
+        when(persistanceClient.getUtilisateurById(1L)).thenReturn(responseDto);
+        when(persistanceClient.updateUtilisateur(eq(1L), any(MsPersistanceUtilisateurDto.class))).thenReturn(responseDto);
+
+        // WHEN
+        utilisateurService.patchUtilisateur(1L, patch, null);
+
+        // THEN
+        verify(persistanceClient).updateUtilisateur(eq(1L), argThat(dto ->
+                dto.getAllergenesIds().equals(Set.of(4L, 7L)) && dto.getNom().equals(responseDto.getNom())));
+    }
+
+    @Test
+    void patchUtilisateur_NativeSupported_SendsOnlyDelta() throws Exception {
+        // GIVEN
+        UtilisateurMergePatch patch = UtilisateurMergePatch.parse(new ObjectMapper().readTree("{\"nom\": \"Smith\"}"));
+        when(persistanceClient.patchUtilisateur(eq(1L), any())).thenReturn(Optional.of(responseDto));
+
+        // WHEN
+        utilisateurService.patchUtilisateur(1L, patch, null);
+
+        // THEN
+        verify(persistanceClient).patchUtilisateur(eq(1L), argThat(json -> json.size() == 1 && json.has("nom")));
+        verify(persistanceClient, never()).getUtilisateurById(anyLong());
+        verify(persistanceClient, never()).updateUtilisateur(anyLong(), any());
+    }
+
+    @Test
+    void patchUtilisateur_StaleIfMatch_RejectedBeforeNativePatch() throws Exception {
+        // GIVEN
+        UtilisateurMergePatch patch = UtilisateurMergePatch.parse(new ObjectMapper().readTree("{\"nom\": \"Smith\"}"));
+        when(persistanceClient.getUtilisateurById(1L)).thenReturn(responseDto);
+
+        // WHEN & THEN
+        assertThrows(PreconditionFailedException.class,
+                () -> utilisateurService.patchUtilisateur(1L, patch, "\"version-obsolete\""));
+        verify(persistanceClient, never()).patchUtilisateur(anyLong(), any());
+        verify(persistanceClient, never()).updateUtilisateur(anyLong(), any());
+    }
+
+    @Test
+    void patchUtilisateur_MatchingIfMatch_ChecksOnceThenPatchesNatively() throws Exception {
+        // GIVEN
+        UtilisateurMergePatch patch = UtilisateurMergePatch.parse(new ObjectMapper().readTree("{\"nom\": \"Smith\"}"));
+        when(persistanceClient.getUtilisateurById(1L)).thenReturn(responseDto);
+        when(persistanceClient.patchUtilisateur(eq(1L), any())).thenReturn(Optional.of(responseDto));
+
+        // WHEN
+        utilisateurService.patchUtilisateur(1L, patch, UtilisateurEtag.of(responseDto));
+
+        // THEN
+        verify(persistanceClient, times(1)).getUtilisateurById(1L);
+        verify(persistanceClient).patchUtilisateur(eq(1L), any());
+    }
+
+    @Test
+    void updateUtilisateur_InvalidatesCachedProfile() {
+        // GIVEN
+        UtilisateurUpdateDto updateDto = UtilisateurUpdateDto.builder().nom("NewName").build();
+        when(persistanceClient.getUtilisateurById(1L)).thenReturn(responseDto);
+        when(persistanceClient.getUtilisateurByEmail("test@univ.fr")).thenReturn(responseDto);
+        when(persistanceClient.updateUtilisateur(eq(1L), any(MsPersistanceUtilisateurDto.class)))
+                .thenReturn(responseDto);
+        utilisateurService.getUtilisateurByEmail("test@univ.fr");
+
+        // WHEN
+        utilisateurService.updateUtilisateur(1L, updateDto);
+        utilisateurService.getUtilisateurByEmail("test@univ.fr");
+
+        // THEN
+        verify(persistanceClient, times(2)).getUtilisateurByEmail("test@univ.fr");
+    }
+
     @Test
     void updateUtilisateur_ChangeEmail_Success() {
         // GIVEN
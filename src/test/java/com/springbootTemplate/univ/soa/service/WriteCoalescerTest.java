@@ -0,0 +1,139 @@
+package com.springbootTemplate.univ.soa.service;
+
+import com.springbootTemplate.univ.soa.client.RequestDeadline;
+import com.springbootTemplate.univ.soa.exception.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteCoalescerTest {
+
+    // Changements fusionnables : ensembles de lettres ; "!" ne fusionne jamais
+    private final WriteCoalescer<Long, String, String> coalescer = new WriteCoalescer<>(4,
+            (a, b) -> a.contains("!") || b.contains("!") ? null : a + b);
+
+    @Test
+    void concurrentWrites_ShouldRunOneAtATimeAndMergeWhileBusy() throws Exception {
+        CountDownLatch premiereEnCours = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+        AtomicInteger enParallele = new AtomicInteger();
+        AtomicInteger maxParallele = new AtomicInteger();
+        List<String> ecrits = new ArrayList<>();
+
+        Function<String, String> ecriture = changement -> {
+            maxParallele.accumulateAndGet(enParallele.incrementAndGet(), Math::max);
+            try {
+                premiereEnCours.countDown();
+                liberer.await(5, TimeUnit.SECONDS);
+                synchronized (ecrits) {
+                    ecrits.add(changement);
+                }
+                return "v" + changement;
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                enParallele.decrementAndGet();
+            }
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> premiere = executor.submit(() -> coalescer.submit(1L, "a", ecriture));
+            assertTrue(premiereEnCours.await(5, TimeUnit.SECONDS));
+
+            List<Future<String>> suivantes = new ArrayList<>();
+            for (String changement : List.of("b", "c", "d")) {
+                suivantes.add(executor.submit(() -> coalescer.submit(1L, changement, ecriture)));
+            }
+            while (coalescer.coalescedCount() < 2) {
+                Thread.sleep(5);
+            }
+            liberer.countDown();
+
+            assertEquals("va", premiere.get(5, TimeUnit.SECONDS));
+            String fusionne = suivantes.get(0).get(5, TimeUnit.SECONDS);
+            assertEquals(3, fusionne.length() - 1);
+            for (Future<String> suivante : suivantes) {
+                assertEquals(fusionne, suivante.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        assertEquals(1, maxParallele.get());
+        assertEquals(2, ecrits.size());
+        assertEquals(2, coalescer.writeCount());
+    }
+
+    @Test
+    void nonMergeableWrite_ShouldRunSeparatelyAfterPendingOnes() {
+        List<String> ecrits = new ArrayList<>();
+
+        coalescer.submit(1L, "a", changement -> {
+            ecrits.add(changement);
+            return changement;
+        });
+        coalescer.submit(1L, "!", changement -> {
+            ecrits.add(changement);
+            return changement;
+        });
+
+        assertEquals(List.of("a", "!"), ecrits);
+        assertEquals(0, coalescer.coalescedCount());
+    }
+
+    @Test
+    void failure_ShouldPropagateAndReleaseTheKey() {
+        assertThrows(IllegalStateException.class, () -> coalescer.submit(1L, "a", changement -> {
+            throw new IllegalStateException("ms-persistance indisponible");
+        }));
+
+        assertEquals("ok", coalescer.submit(1L, "b", changement -> "ok"));
+    }
+
+    @Test
+    void queuedWrite_ShouldGiveUpAtTheDeadlineWithoutBeingWritten() throws Exception {
+        CountDownLatch premiereEnCours = new CountDownLatch(1);
+        CountDownLatch liberer = new CountDownLatch(1);
+        List<String> ecrits = new ArrayList<>();
+
+        Function<String, String> ecriture = changement -> {
+            premiereEnCours.countDown();
+            try {
+                liberer.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            synchronized (ecrits) {
+                ecrits.add(changement);
+            }
+            return changement;
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> premiere = executor.submit(() -> coalescer.submit(1L, "a", ecriture));
+            assertTrue(premiereEnCours.await(5, TimeUnit.SECONDS));
+
+            RequestDeadline.start(50);
+            try {
+                assertThrows(DeadlineExceededException.class, () -> coalescer.submit(1L, "!", ecriture));
+            } finally {
+                RequestDeadline.clear();
+            }
+
+            liberer.countDown();
+            assertEquals("a", premiere.get(5, TimeUnit.SECONDS));
+        }
+
+        // Le lot abandonné n'a jamais été écrit et la file ne reste pas bloquée
+        assertEquals(List.of("a"), ecrits);
+        assertEquals("b", coalescer.submit(1L, "b", ecriture));
+    }
+}